@@ -0,0 +1,102 @@
+package com.example.commerce.alert;
+
+import com.example.commerce.dto.LowStockAlertDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stream of low-stock alerts that admin clients follow over server-sent events. Publishing only hands the
+ * alert to a single dispatcher thread, so a slow subscriber never holds up the write path that caused it. The last
+ * alerts are kept for subscribers that reconnect with a Last-Event-ID.
+ */
+@Slf4j
+@Component
+public class LowStockAlertStream {
+
+    private static final int REPLAY_CAPACITY = 1000;
+    private static final long SUBSCRIPTION_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    // Sequence, replay buffer and subscribers are only touched on this thread, which also keeps the alerts in order
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Deque<LowStockAlertDTO> recentAlerts = new ArrayDeque<>();
+    private final List<SseEmitter> subscribers = new ArrayList<>();
+    private long sequence;
+
+    public void publish(String type, UUID productId, UUID categoryId, int stock, int threshold) {
+        LocalDateTime occurredAt = LocalDateTime.now();
+        dispatcher.execute(() -> {
+            LowStockAlertDTO alert = new LowStockAlertDTO(++sequence, type, productId, categoryId, stock, threshold, occurredAt);
+            if (recentAlerts.size() == REPLAY_CAPACITY) {
+                recentAlerts.removeFirst();
+            }
+            recentAlerts.addLast(alert);
+
+            Iterator<SseEmitter> iterator = subscribers.iterator();
+            while (iterator.hasNext()) {
+                SseEmitter subscriber = iterator.next();
+                if (!send(subscriber, alert)) {
+                    iterator.remove();
+                }
+            }
+        });
+    }
+
+    // Replays the buffered alerts after lastEventId first; alerts older than the buffer are lost to the subscriber
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter subscriber = new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS);
+        Runnable unsubscribe = () -> dispatcher.execute(() -> subscribers.remove(subscriber));
+        subscriber.onCompletion(unsubscribe);
+        subscriber.onTimeout(unsubscribe);
+        subscriber.onError(error -> unsubscribe.run());
+
+        dispatcher.execute(() -> {
+            if (lastEventId != null) {
+                for (LowStockAlertDTO alert : recentAlerts) {
+                    if (alert.getSequence() > lastEventId && !send(subscriber, alert)) {
+                        return;
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        });
+        return subscriber;
+    }
+
+    private boolean send(SseEmitter subscriber, LowStockAlertDTO alert) {
+        try {
+            subscriber.send(SseEmitter.event()
+                    .id(Long.toString(alert.getSequence()))
+                    .name(alert.getType())
+                    .data(alert, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping low-stock alert subscriber: {}", e.getMessage());
+            subscriber.completeWithError(e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.commerce.alert;
+
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.event.LowStockThresholdChangedEvent;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductDeletedEvent;
+import com.example.commerce.event.ProductStockChangedEvent;
+import com.example.commerce.model.Category;
+import com.example.commerce.model.Product;
+import com.example.commerce.repository.CategoryRepository;
+import com.example.commerce.search.ProductCatalogScanner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Raises low-stock alerts as stock changes instead of polling for products below their threshold. The stock, category
+ * and threshold of every product are loaded once on startup and then kept current by the events the product and
+ * inventory write paths publish after commit. Each change is only compared against the level the product was at
+ * before, and crossings into low or no stock and back are published on the LowStockAlertStream.
+ * <p>
+ * A product's own threshold wins over its category's, which wins over the configured default. Like the search
+ * indexes the state is per instance, so an instance alerts on the changes it wrote itself.
+ */
+@Slf4j
+@Component
+public class LowStockMonitor {
+
+    static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+    static final String LOW_STOCK = "LOW_STOCK";
+    static final String RESTOCKED = "RESTOCKED";
+
+    private final ProductCatalogScanner catalogScanner;
+    private final CategoryRepository categoryRepository;
+    private final LowStockAlertStream alertStream;
+    private final int defaultThreshold;
+
+    private final Map<UUID, ProductStock> products = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> categoryThresholds = new ConcurrentHashMap<>();
+
+    public LowStockMonitor(ProductCatalogScanner catalogScanner, CategoryRepository categoryRepository, LowStockAlertStream alertStream,
+                           @Value("${commerce.inventory.low-stock-threshold:5}") int defaultThreshold) {
+        this.catalogScanner = catalogScanner;
+        this.categoryRepository = categoryRepository;
+        this.alertStream = alertStream;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    // Products already tracked were changed while loading and are newer than the loaded row, only a missing
+    // threshold is taken from it
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Category category : categoryRepository.findAll()) {
+            if (category.getLowStockThreshold() != null) {
+                categoryThresholds.putIfAbsent(category.getCategoryId(), category.getLowStockThreshold());
+            }
+        }
+        catalogScanner.forEachBatch(batch -> {
+            for (Product product : batch) {
+                UUID categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+                ProductStock loaded = track(categoryId, product.getLowStockThreshold(), product.availableStock());
+                products.merge(product.getProductId(), loaded, (current, ignored) -> current.threshold() != null
+                        ? current
+                        : track(current.categoryId(), loaded.threshold(), current.stock()));
+            }
+        });
+        log.info("Low-stock monitor tracking {} products", products.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.product();
+        update(product.getProductId(), current ->
+                track(product.getCategoryId(), current != null ? current.threshold() : null, product.getStock()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        update(event.productId(), current -> current != null ? track(current.categoryId(), current.threshold(), event.stock()) : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        products.remove(event.productId());
+    }
+
+    // A new category threshold moves all of its products without one of their own at once
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThresholdChanged(LowStockThresholdChangedEvent event) {
+        if (event.productId() != null) {
+            update(event.productId(), current -> current != null ? track(current.categoryId(), event.threshold(), current.stock()) : null);
+            return;
+        }
+        if (event.threshold() != null) {
+            categoryThresholds.put(event.categoryId(), event.threshold());
+        } else {
+            categoryThresholds.remove(event.categoryId());
+        }
+        for (Map.Entry<UUID, ProductStock> entry : products.entrySet()) {
+            ProductStock product = entry.getValue();
+            if (Objects.equals(product.categoryId(), event.categoryId()) && product.threshold() == null) {
+                update(entry.getKey(), current -> current != null ? track(current.categoryId(), current.threshold(), current.stock()) : null);
+            }
+        }
+    }
+
+    // Runs inside compute, so the alerts of one product are published in the order of its changes
+    private void update(UUID productId, UnaryOperator<ProductStock> change) {
+        products.compute(productId, (id, current) -> {
+            ProductStock next = change.apply(current);
+            if (next != null) {
+                StockLevel before = current != null ? current.level() : StockLevel.IN_STOCK;
+                if (next.level().compareTo(before) < 0) {
+                    alertStream.publish(next.level() == StockLevel.NONE ? OUT_OF_STOCK : LOW_STOCK,
+                            id, next.categoryId(), next.stock(), next.effectiveThreshold());
+                } else if (next.level() == StockLevel.IN_STOCK && before != StockLevel.IN_STOCK) {
+                    alertStream.publish(RESTOCKED, id, next.categoryId(), next.stock(), next.effectiveThreshold());
+                }
+            }
+            return next;
+        });
+    }
+
+    private ProductStock track(UUID categoryId, Integer threshold, int stock) {
+        int effectiveThreshold = threshold != null ? threshold
+                : categoryId != null ? categoryThresholds.getOrDefault(categoryId, defaultThreshold)
+                : defaultThreshold;
+        StockLevel level = stock <= 0 ? StockLevel.NONE : stock < effectiveThreshold ? StockLevel.LOW : StockLevel.IN_STOCK;
+        return new ProductStock(categoryId, threshold, stock, effectiveThreshold, level);
+    }
+
+    // Ordered from worst to best
+    private enum StockLevel {
+        NONE, LOW, IN_STOCK
+    }
+
+    private record ProductStock(UUID categoryId, Integer threshold, int stock, int effectiveThreshold, StockLevel level) {
+    }
+}
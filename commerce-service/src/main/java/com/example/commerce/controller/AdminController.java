@@ -0,0 +1,97 @@
+package com.example.commerce.controller;
+
+import com.example.commerce.alert.LowStockAlertStream;
+import com.example.commerce.dto.CacheStatsDTO;
+import com.example.commerce.dto.InventoryAuditDTO;
+import com.example.commerce.dto.InventoryLedgerEntryDTO;
+import com.example.commerce.dto.ReservationStatsDTO;
+import com.example.commerce.service.CategoryService;
+import com.example.commerce.service.InventoryLedgerService;
+import com.example.commerce.service.InventoryService;
+import com.example.commerce.service.ProductCache;
+import com.example.commerce.service.ReservationExpiryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ProductCache productCache;
+    private final ReservationExpiryService reservationExpiryService;
+    private final InventoryService inventoryService;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final CategoryService categoryService;
+    private final LowStockAlertStream lowStockAlertStream;
+
+    @GetMapping("/cache/products")
+    public ResponseEntity<CacheStatsDTO> getProductCacheStats() {
+        log.info("Received request to get product cache statistics");
+        return ResponseEntity.ok(productCache.stats());
+    }
+
+    @GetMapping("/reservations")
+    public ResponseEntity<ReservationStatsDTO> getReservationStats() {
+        log.info("Received request to get stock reservation statistics");
+        return ResponseEntity.ok(reservationExpiryService.stats());
+    }
+
+    @GetMapping("/inventory/{productId}")
+    public ResponseEntity<InventoryAuditDTO> getInventoryAudit(@PathVariable UUID productId) {
+        log.info("Received request to audit the stock of product ID: {}", productId);
+        return ResponseEntity.ok(inventoryService.getAudit(productId));
+    }
+
+    @GetMapping("/inventory/{productId}/ledger")
+    public ResponseEntity<List<InventoryLedgerEntryDTO>> getInventoryLedger(@PathVariable UUID productId,
+                                                                            @RequestParam(defaultValue = "50") int limit) {
+        log.info("Received request to get the inventory ledger of product ID: {}", productId);
+        return ResponseEntity.ok(inventoryLedgerService.getEntries(productId, limit));
+    }
+
+    @PostMapping("/inventory/{productId}/rebuild")
+    public ResponseEntity<InventoryAuditDTO> rebuildInventory(@PathVariable UUID productId) {
+        log.info("Received request to rebuild the stock of product ID: {} from the ledger", productId);
+        return ResponseEntity.ok(inventoryService.rebuildStock(productId));
+    }
+
+    // Omitting the threshold clears it, the category's threshold applies again
+    @PutMapping("/inventory/{productId}/low-stock-threshold")
+    public ResponseEntity<Void> setProductLowStockThreshold(@PathVariable UUID productId,
+                                                            @RequestParam(required = false) Integer threshold) {
+        log.info("Received request to set the low-stock threshold of product ID: {}", productId);
+        inventoryService.setLowStockThreshold(productId, threshold);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/categories/{categoryId}/low-stock-threshold")
+    public ResponseEntity<Void> setCategoryLowStockThreshold(@PathVariable UUID categoryId,
+                                                             @RequestParam(required = false) Integer threshold) {
+        log.info("Received request to set the low-stock threshold of category ID: {}", categoryId);
+        categoryService.setLowStockThreshold(categoryId, threshold);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Server-sent events; a reconnecting client gets the alerts it missed from its Last-Event-ID on
+    @GetMapping(value = "/alerts/low-stock", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Received request to stream low-stock alerts");
+        return lowStockAlertStream.subscribe(lastEventId);
+    }
+}
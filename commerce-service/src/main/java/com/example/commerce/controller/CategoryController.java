@@ -3,6 +3,8 @@ package com.example.commerce.controller;
 import com.example.commerce.dto.CategoryRequestDTO;
 import com.example.commerce.dto.CategoryResponseDTO;
 import com.example.commerce.model.Category;
+import com.example.commerce.repository.CollectionVersion;
+import com.example.commerce.repository.EntityVersion;
 import com.example.commerce.service.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,14 +26,22 @@ public class CategoryController {
     private final CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories(WebRequest request) {
         log.info("Received request to retrieve all categories");
+        CollectionVersion version = categoryService.getCategoriesVersion();
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return ResponseEntity.ok(categoryService.getAllCategories());
     }
 
     @GetMapping("/{categoryId}")
-    public ResponseEntity<CategoryResponseDTO> getCategoryById(@PathVariable UUID categoryId) {
+    public ResponseEntity<CategoryResponseDTO> getCategoryById(@PathVariable UUID categoryId, WebRequest request) {
         log.info("Received request to fetch category with ID: {}", categoryId);
+        EntityVersion version = categoryService.getCategoryVersion(categoryId);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return ResponseEntity.ok(categoryService.getCategoryById(categoryId));
     }
 
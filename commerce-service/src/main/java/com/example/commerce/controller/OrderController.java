@@ -1,17 +1,30 @@
 package com.example.commerce.controller;
 
+import com.example.commerce.dto.BulkOrderStatusRequestDTO;
+import com.example.commerce.dto.BulkOrderStatusResponseDTO;
+import com.example.commerce.dto.CheckoutRequestDTO;
+import com.example.commerce.dto.CheckoutResponseDTO;
+import com.example.commerce.dto.CursorPageDTO;
+import com.example.commerce.dto.OrderAllocationDTO;
+import com.example.commerce.dto.OrderDetailDTO;
 import com.example.commerce.dto.OrderRequestDTO;
 import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.idempotency.IdempotencyStore;
 import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.repository.EntityVersion;
+import com.example.commerce.service.BulkOrderStatusService;
+import com.example.commerce.service.CheckoutService;
+import com.example.commerce.service.ConflictRetry;
 import com.example.commerce.service.OrderService;
+import com.example.commerce.service.WarehouseAllocationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,48 +36,101 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final WarehouseAllocationService warehouseAllocationService;
+    private final CheckoutService checkoutService;
+    private final ConflictRetry conflictRetry;
+    private final IdempotencyStore idempotencyStore;
+    private final BulkOrderStatusService bulkOrderStatusService;
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable UUID orderId) {
+    public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable UUID orderId, WebRequest request) {
         log.info("Received request to get order with ID: {}", orderId);
+        EntityVersion version = orderService.getOrderVersion(orderId);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            log.info("Order with ID: {} not modified", orderId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         OrderResponseDTO responseDTO = orderService.getOrderById(orderId);
         log.info("Successfully retrieved order with ID: {}", orderId);
         return ResponseEntity.ok(responseDTO);
     }
 
+    // The order with its items and payment, for the order-detail page
+    @GetMapping("/{orderId}/full")
+    public ResponseEntity<OrderDetailDTO> getOrderDetail(@PathVariable UUID orderId) {
+        log.info("Received request to get order details with items and payment for order ID: {}", orderId);
+        OrderDetailDTO detail = orderService.getOrderDetail(orderId);
+        log.info("Successfully retrieved order ID: {} with {} items", orderId, detail.getItems().size());
+        return ResponseEntity.ok(detail);
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderResponseDTO>> getOrdersForUser(@PathVariable UUID userId, @RequestParam(required = false) OrderStatus orderStatus) {
+    public ResponseEntity<CursorPageDTO<OrderResponseDTO>> getOrdersForUser(@PathVariable UUID userId,
+                                                                            @RequestParam(required = false) OrderStatus orderStatus,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int size) {
         log.info("Received request to get orders for user ID: {} with status: {}", userId, orderStatus);
-        List<OrderResponseDTO> orders = orderService.getOrdersForUser(userId, Optional.ofNullable(orderStatus));
-
-        if (orders.isEmpty()) {
-            String message = orderStatus != null
-                    ? String.format("No orders found for user ID %s with status %s", userId, orderStatus)
-                    : String.format("No orders found for user ID %s", userId);
-            log.warn(message);
-            return ResponseEntity.ok(Collections.emptyList());
-        }
-
-        log.info("Successfully retrieved {} orders for user ID: {}", orders.size(), userId);
-        return ResponseEntity.ok(orders);
+        CursorPageDTO<OrderResponseDTO> page = orderService.getOrdersForUser(userId, Optional.ofNullable(orderStatus), cursor, size);
+        log.info("Successfully retrieved {} orders for user ID: {}", page.getItems().size(), userId);
+        return ResponseEntity.ok(page);
     }
 
+    // Retries sent with the same Idempotency-Key get the first response instead of a second order
     @PostMapping
-    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO requestDTO) {
+    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO requestDTO,
+                                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         log.info("Received request to create a new order for user ID: {}", requestDTO.getUserId());
-        OrderResponseDTO responseDTO = orderService.createOrder(requestDTO);
-        log.info("Successfully created order with ID: {}", responseDTO.getOrderId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+        return idempotencyStore.execute("createOrder", requestDTO.getUserId(), idempotencyKey, requestDTO, () -> {
+            OrderResponseDTO responseDTO = orderService.createOrder(requestDTO);
+            log.info("Successfully created order with ID: {}", responseDTO.getOrderId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+        });
+    }
+
+    // The order and all of its items in one request, priced and reserved server-side
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResponseDTO> checkout(@Valid @RequestBody CheckoutRequestDTO requestDTO,
+                                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        log.info("Received checkout request for user ID: {}", requestDTO.getUserId());
+        return idempotencyStore.execute("checkout", requestDTO.getUserId(), idempotencyKey, requestDTO, () -> {
+            CheckoutResponseDTO responseDTO = checkoutService.checkout(requestDTO);
+            log.info("Successfully checked out order with ID: {}", responseDTO.getOrder().getOrderId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+        });
     }
 
     @PutMapping("/{orderId}/status")
     public ResponseEntity<OrderResponseDTO> updateOrderStatus(@PathVariable UUID orderId, @RequestParam OrderStatus newStatus) {
         log.info("Received request to update order status for order ID: {} to {}", orderId, newStatus);
-        OrderResponseDTO responseDTO = orderService.updateOrderStatus(orderId, newStatus);
+        OrderResponseDTO responseDTO = conflictRetry.run("Status update of order " + orderId,
+                () -> orderService.updateOrderStatus(orderId, newStatus));
         log.info("Successfully updated order status for order ID: {} to {}", orderId, responseDTO.getStatus());
         return ResponseEntity.ok(responseDTO);
     }
 
+    // Moves many orders at once and reports the outcome per order; illegal moves are skipped, not failed
+    @PutMapping("/status")
+    public ResponseEntity<BulkOrderStatusResponseDTO> updateOrderStatuses(@Valid @RequestBody BulkOrderStatusRequestDTO requestDTO) {
+        log.info("Received request to update the status of {} orders to {}", requestDTO.getOrderIds().size(), requestDTO.getNewStatus());
+        BulkOrderStatusResponseDTO responseDTO = bulkOrderStatusService.updateOrderStatuses(requestDTO.getOrderIds(), requestDTO.getNewStatus());
+        log.info("Successfully updated the status of {} orders to {}", responseDTO.getUpdated(), responseDTO.getStatus());
+        return ResponseEntity.ok(responseDTO);
+    }
+
+    @GetMapping("/{orderId}/allocation")
+    public ResponseEntity<List<OrderAllocationDTO>> getAllocation(@PathVariable UUID orderId) {
+        log.info("Received request to get the warehouse allocation of order ID: {}", orderId);
+        return ResponseEntity.ok(warehouseAllocationService.getAllocation(orderId));
+    }
+
+    @PostMapping("/{orderId}/allocation")
+    public ResponseEntity<List<OrderAllocationDTO>> allocateOrder(@PathVariable UUID orderId) {
+        log.info("Received request to allocate order ID: {} to warehouses", orderId);
+        List<OrderAllocationDTO> allocation = warehouseAllocationService.allocate(orderId);
+        log.info("Successfully allocated order ID: {} in {} lines", orderId, allocation.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(allocation);
+    }
+
     @DeleteMapping("/{orderId}")
     public ResponseEntity<Void> deleteOrder(@PathVariable UUID orderId) {
         log.info("Received request to delete order with ID: {}", orderId);
@@ -1,5 +1,6 @@
 package com.example.commerce.controller;
 
+import com.example.commerce.dto.OrderItemBatchRequestDTO;
 import com.example.commerce.dto.OrderItemRequestDTO;
 import com.example.commerce.dto.OrderItemResponseDTO;
 import com.example.commerce.service.OrderItemService;
@@ -35,6 +36,14 @@ public class OrderItemController {
         return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
     }
 
+    // Many lines for one order in one request, reserved together
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderItemResponseDTO>> addOrUpdateOrderItems(@Valid @RequestBody OrderItemBatchRequestDTO requestDTO) {
+        log.info("Adding or updating {} order items for order ID: {}", requestDTO.getItems().size(), requestDTO.getOrderId());
+        List<OrderItemResponseDTO> responseDTOs = orderItemService.addOrUpdateOrderItems(requestDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(responseDTOs);
+    }
+
     @DeleteMapping("/{orderItemId}")
     public ResponseEntity<Void> deleteOrderItem(@PathVariable UUID orderItemId) {
         log.info("Deleting order item with ID: {}", orderItemId);
@@ -2,7 +2,9 @@ package com.example.commerce.controller;
 
 import com.example.commerce.dto.PaymentRequestDTO;
 import com.example.commerce.dto.PaymentResponseDTO;
+import com.example.commerce.idempotency.IdempotencyStore;
 import com.example.commerce.model.enums.PaymentStatus;
+import com.example.commerce.service.ConflictRetry;
 import com.example.commerce.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,8 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ConflictRetry conflictRetry;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping("/{paymentId}")
     public ResponseEntity<PaymentResponseDTO> getPaymentById(@PathVariable UUID paymentId) {
@@ -29,18 +33,23 @@ public class PaymentController {
         return ResponseEntity.ok(responseDTO);
     }
 
+    // Payments carry no user, so keys are scoped by the order paid; a retry gets the first response, not a 400
     @PostMapping
-    public ResponseEntity<PaymentResponseDTO> createPayment(@Valid @RequestBody PaymentRequestDTO requestDTO) {
+    public ResponseEntity<PaymentResponseDTO> createPayment(@Valid @RequestBody PaymentRequestDTO requestDTO,
+                                                            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         log.info("Received request to create payment for order ID: {}", requestDTO.getOrderId());
-        PaymentResponseDTO responseDTO = paymentService.createPayment(requestDTO);
-        log.info("Successfully created payment with ID: {}", responseDTO.getPaymentId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+        return idempotencyStore.execute("createPayment", requestDTO.getOrderId(), idempotencyKey, requestDTO, () -> {
+            PaymentResponseDTO responseDTO = paymentService.createPayment(requestDTO);
+            log.info("Successfully created payment with ID: {}", responseDTO.getPaymentId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+        });
     }
 
     @PutMapping("/{paymentId}/status")
     public ResponseEntity<PaymentResponseDTO> updatePayment(@PathVariable UUID paymentId, @RequestParam PaymentStatus newStatus) {
         log.info("Received request to update payment with ID: {}", paymentId);
-        PaymentResponseDTO responseDTO = paymentService.updatePaymentStatus(paymentId, newStatus);
+        PaymentResponseDTO responseDTO = conflictRetry.run("Status update of payment " + paymentId,
+                () -> paymentService.updatePaymentStatus(paymentId, newStatus));
         log.info("Successfully updated payment with ID: {} and status: {}", paymentId, responseDTO.getStatus());
         return ResponseEntity.ok(responseDTO);
     }
@@ -1,17 +1,35 @@
 package com.example.commerce.controller;
 
+import com.example.commerce.dto.CursorPageDTO;
+import com.example.commerce.dto.ProductFilterResponseDTO;
+import com.example.commerce.dto.ProductImportResultDTO;
 import com.example.commerce.dto.ProductRequestDTO;
 import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.dto.ProductSuggestionDTO;
 import com.example.commerce.model.Product;
+import com.example.commerce.repository.EntityVersion;
+import com.example.commerce.service.InventoryService;
+import com.example.commerce.service.ProductExportService;
+import com.example.commerce.service.ProductImportService;
 import com.example.commerce.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -21,24 +39,86 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final InventoryService inventoryService;
 
     @GetMapping("/{productId}")
-    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable UUID productId) {
+    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable UUID productId, WebRequest request) {
         log.info("Received request to get product with ID: {}", productId);
+        EntityVersion version = productService.getProductVersion(productId);
+        // Also sets ETag and Last-Modified on the response, so the client can revalidate next time
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         ProductResponseDTO responseDTO = productService.getProductById(productId);
         return ResponseEntity.ok(responseDTO);
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        log.info("Received request to get all products");
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Received request to get products page of size {}", size);
+        return ResponseEntity.ok(productService.getAllProducts(cursor, size));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductResponseDTO>> getProductsByCategory(@PathVariable UUID categoryId) {
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getProductsByCategory(@PathVariable UUID categoryId,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
         log.info("Received request to get products for category ID: {}", categoryId);
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+        return ResponseEntity.ok(productService.getProductsByCategory(categoryId, cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponseDTO>> searchProducts(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Received request to search products for: {}", q);
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(@RequestParam String q,
+                                                                      @RequestParam(defaultValue = "" + ProductService.MAX_SUGGESTIONS) int limit) {
+        log.debug("Received request to suggest products for prefix: {}", q);
+        return ResponseEntity.ok(productService.suggestProducts(q, limit));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResponseDTO> filterProducts(@RequestParam(name = "categoryId", required = false) Set<UUID> categoryIds,
+                                                                   @RequestParam(required = false) BigDecimal minPrice,
+                                                                   @RequestParam(required = false) BigDecimal maxPrice,
+                                                                   @RequestParam(defaultValue = "false") boolean inStock,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Received request to filter products");
+        return ResponseEntity.ok(productService.filterProducts(categoryIds, minPrice, maxPrice, inStock, page, size));
+    }
+
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(name = "format", defaultValue = "ndjson") String formatParam,
+                               HttpServletResponse response) throws IOException {
+        ProductExportService.Format format = ProductExportService.Format.fromParam(formatParam);
+        log.info("Received request to export products as {}", format);
+        boolean ndjson = format == ProductExportService.Format.NDJSON;
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + (ndjson ? "ndjson" : "csv"));
+        productExportService.exportProducts(format, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResultDTO> importProducts(@RequestBody List<ProductRequestDTO> requestDTOs) {
+        log.info("Received request to import {} products", requestDTOs.size());
+        return ResponseEntity.ok(productImportService.importProducts(requestDTOs));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImportResultDTO> importProductsCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Received request to import products from CSV file: {}", file.getOriginalFilename());
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(productImportService.importCsv(inputStream));
+        }
     }
 
     @PostMapping
@@ -55,6 +135,14 @@ public class ProductController {
         return ResponseEntity.ok(responseDTO);
     }
 
+    // Spreads the stock of a flash-sale product over several rows, buckets=0 turns sharding off again
+    @PutMapping("/{productId}/stock-buckets")
+    public ResponseEntity<ProductResponseDTO> shardProductStock(@PathVariable UUID productId, @RequestParam int buckets) {
+        log.info("Received request to shard stock of product ID: {} into {} buckets", productId, buckets);
+        inventoryService.shardStock(productId, buckets);
+        return ResponseEntity.ok(productService.getProductById(productId));
+    }
+
     @DeleteMapping("/{productId}")
     public ResponseEntity<Void> deleteProduct(@PathVariable UUID productId) {
         log.info("Received request to delete product with ID: {}", productId);
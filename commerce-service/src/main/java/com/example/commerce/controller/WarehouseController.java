@@ -0,0 +1,43 @@
+package com.example.commerce.controller;
+
+import com.example.commerce.dto.WarehouseRequestDTO;
+import com.example.commerce.dto.WarehouseResponseDTO;
+import com.example.commerce.dto.WarehouseStockDTO;
+import com.example.commerce.service.WarehouseService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/warehouses")
+@RequiredArgsConstructor
+public class WarehouseController {
+
+    private final WarehouseService warehouseService;
+
+    @GetMapping
+    public ResponseEntity<List<WarehouseResponseDTO>> getAllWarehouses() {
+        log.info("Received request to retrieve all warehouses");
+        return ResponseEntity.ok(warehouseService.getAllWarehouses());
+    }
+
+    @PostMapping
+    public ResponseEntity<WarehouseResponseDTO> createWarehouse(@Valid @RequestBody WarehouseRequestDTO requestDTO) {
+        log.info("Received request to create a new warehouse");
+        WarehouseResponseDTO responseDTO = warehouseService.createWarehouse(requestDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
+    }
+
+    @PutMapping("/{warehouseId}/stock/{productId}")
+    public ResponseEntity<WarehouseStockDTO> setStock(@PathVariable UUID warehouseId, @PathVariable UUID productId, @RequestParam int stock) {
+        log.info("Received request to set stock of product ID: {} in warehouse ID: {}", productId, warehouseId);
+        return ResponseEntity.ok(warehouseService.setStock(warehouseId, productId, stock));
+    }
+}
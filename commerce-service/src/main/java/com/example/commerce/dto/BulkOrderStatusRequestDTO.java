@@ -0,0 +1,25 @@
+package com.example.commerce.dto;
+
+import com.example.commerce.model.enums.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequestDTO {
+
+    @NotEmpty(message = "Order IDs are required")
+    @Size(max = 10000, message = "At most 10000 orders can be updated at once")
+    private List<@NotNull(message = "Order ID is required") UUID> orderIds;
+
+    @NotNull(message = "New status is required")
+    private OrderStatus newStatus;
+}
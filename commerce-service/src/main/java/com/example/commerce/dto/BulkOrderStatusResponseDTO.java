@@ -0,0 +1,15 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkOrderStatusResponseDTO {
+
+    private String status;
+    private int updated;
+    private List<OrderStatusResultDTO> results; // One per distinct order ID, in request order
+}
@@ -0,0 +1,14 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CheckoutResponseDTO {
+
+    private OrderResponseDTO order;
+    private List<OrderItemResponseDTO> items;
+}
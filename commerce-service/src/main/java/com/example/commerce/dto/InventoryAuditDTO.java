@@ -0,0 +1,17 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class InventoryAuditDTO {
+
+    private UUID productId;
+    private int stock;              // As stored on the product and served to clients
+    private int ledgerStock;        // Latest snapshot plus the ledger entries after it
+    private LocalDateTime snapshotCoveredUntil;
+}
@@ -0,0 +1,20 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class InventoryLedgerEntryDTO {
+
+    private UUID entryId;
+    private UUID productId;
+    private String movement;
+    private int quantity;
+    private int delta;
+    private UUID orderId;
+    private LocalDateTime createdAt;
+}
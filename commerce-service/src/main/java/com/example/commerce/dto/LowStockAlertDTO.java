@@ -0,0 +1,20 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class LowStockAlertDTO {
+
+    private long sequence;
+    private String type;
+    private UUID productId;
+    private UUID categoryId;
+    private int stock;
+    private int threshold;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,15 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class OrderDetailDTO {
+
+    private OrderResponseDTO order;
+    private List<OrderItemResponseDTO> items;
+    private PaymentResponseDTO payment; // Null until the order is paid
+}
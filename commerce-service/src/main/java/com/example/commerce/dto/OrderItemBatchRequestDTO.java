@@ -0,0 +1,25 @@
+package com.example.commerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemBatchRequestDTO {
+
+    @NotNull(message = "Order ID is required")
+    private UUID orderId;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "A batch cannot exceed 500 items")
+    private List<@Valid CheckoutItemDTO> items;
+}
@@ -1,13 +1,16 @@
 package com.example.commerce.dto;
 
+import com.example.commerce.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class OrderItemResponseDTO {
 
@@ -19,4 +22,9 @@ public class OrderItemResponseDTO {
     private String productName;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Serialized as lineTotal, derived rather than stored
+    public BigDecimal getLineTotal() {
+        return Money.of(price).times(quantity).toBigDecimal();
+    }
 }
@@ -37,10 +37,9 @@ public class OrderRequestDTO {
     @Pattern(regexp = "^\\d{4,5}$", message = "Postal code must be a valid 4 or 5-digit format")
     private String postalCode;
 
-    @NotNull(message = "Total price is required")
-    @DecimalMin(value = "0.01", message = "Total price must be greater than zero")
+    // Ignored: the total is computed from the order items. Still accepted so existing clients keep working
     private BigDecimal totalPrice;
 
-    @NotBlank(message = "Order status is required")
+    // Optional: orders always start as PENDING and only reach other statuses through the status endpoints
     private String status;
 }
@@ -0,0 +1,23 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class OrderStatusResultDTO {
+
+    private UUID orderId;
+    private Outcome outcome;
+    private String previousStatus; // Null if the order was not found
+
+    public enum Outcome {
+        UPDATED,            // Moved to the new status
+        UNCHANGED,          // Already had the new status
+        NOT_FOUND,
+        ILLEGAL_TRANSITION, // The state machine does not allow the move, see OrderStatus
+        FAILED              // Its chunk could not be applied, the order was left as it was
+    }
+}
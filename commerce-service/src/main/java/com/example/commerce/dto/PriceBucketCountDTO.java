@@ -0,0 +1,15 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class PriceBucketCountDTO {
+
+    private BigDecimal minPrice; // Inclusive
+    private BigDecimal maxPrice; // Exclusive, null for the open-ended top bucket
+    private long count;
+}
@@ -0,0 +1,18 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ProductFilterResponseDTO {
+
+    private long totalCount;
+    private List<ProductResponseDTO> items;
+    private Map<UUID, Long> categoryCounts;        // Counted with every filter applied except the category one
+    private List<PriceBucketCountDTO> priceBuckets; // Counted with every filter applied except the price one
+}
@@ -0,0 +1,13 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+
+    private int row;        // 1-based position in the JSON array or the CSV data rows (header excluded)
+    private String name;
+    private String message;
+}
@@ -0,0 +1,15 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductImportResultDTO {
+
+    private int totalRows;
+    private int importedCount;
+    private List<ProductImportErrorDTO> errors; // Rejected rows only, every other row was inserted
+}
@@ -0,0 +1,14 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ProductSuggestionDTO {
+
+    private UUID productId;
+    private String name;
+}
@@ -0,0 +1,15 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReservationStatsDTO {
+
+    private int scheduledCount;
+    private long ttlSeconds;
+    private long expiredOrderCount;
+    private long releasedUnitCount;
+    private long failedBatchCount;
+}
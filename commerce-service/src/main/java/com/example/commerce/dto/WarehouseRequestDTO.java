@@ -0,0 +1,25 @@
+package com.example.commerce.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseRequestDTO {
+
+    @NotBlank(message = "Warehouse code is required")
+    private String code;
+
+    @NotBlank(message = "Warehouse name is required")
+    private String name;
+
+    @NotBlank(message = "Warehouse country is required")
+    private String country;
+
+    private String state;
+
+    private int priority;
+}
@@ -0,0 +1,19 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class WarehouseResponseDTO {
+
+    private UUID warehouseId;
+    private String code;
+    private String name;
+    private String country;
+    private String state;
+    private int priority;
+    private boolean active;
+}
@@ -0,0 +1,15 @@
+package com.example.commerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class WarehouseStockDTO {
+
+    private UUID warehouseId;
+    private UUID productId;
+    private int stock;
+}
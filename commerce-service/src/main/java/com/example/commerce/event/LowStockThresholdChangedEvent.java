@@ -0,0 +1,10 @@
+package com.example.commerce.event;
+
+import java.util.UUID;
+
+/**
+ * Published after the low-stock threshold of a product or of a category was set or cleared; exactly one of productId
+ * and categoryId is given, a null threshold means the fallback applies again.
+ */
+public record LowStockThresholdChangedEvent(UUID productId, UUID categoryId, Integer threshold) {
+}
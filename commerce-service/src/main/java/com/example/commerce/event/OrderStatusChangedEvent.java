@@ -0,0 +1,12 @@
+package com.example.commerce.event;
+
+import com.example.commerce.model.enums.OrderStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by OrderService after orders moved to a new status: once per single update, once per chunk of a bulk update.
+ */
+public record OrderStatusChangedEvent(OrderStatus status, List<UUID> orderIds) {
+}
@@ -0,0 +1,9 @@
+package com.example.commerce.event;
+
+import com.example.commerce.dto.ProductResponseDTO;
+
+/**
+ * Published by the product write paths after a product was created or updated, carrying its new state.
+ */
+public record ProductChangedEvent(ProductResponseDTO product) {
+}
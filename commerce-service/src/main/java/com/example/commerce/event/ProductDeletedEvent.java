@@ -0,0 +1,9 @@
+package com.example.commerce.event;
+
+import java.util.UUID;
+
+/**
+ * Published by ProductService after a product was deleted.
+ */
+public record ProductDeletedEvent(UUID productId) {
+}
@@ -0,0 +1,9 @@
+package com.example.commerce.event;
+
+import java.util.UUID;
+
+/**
+ * Published by InventoryService after a reservation or release moved a product's stock, carrying the new stock.
+ */
+public record ProductStockChangedEvent(UUID productId, int stock) {
+}
@@ -2,6 +2,7 @@ package com.example.commerce.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -27,6 +28,16 @@ public class GlobalExceptionHandler {
                 .body("A database integrity violation occurred: " + e.getRootCause().getMessage());
     }
 
+    /**
+     * Handle OptimisticLockingFailureException (i.e. a concurrent update changed the row first)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingException(OptimisticLockingFailureException e) {
+        log.warn("Optimistic locking failure: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("The resource was changed by a concurrent update, please retry");
+    }
+
     /**
      * Handle MethodArgumentNotValidException (e.g., Missing attribute values)
      */
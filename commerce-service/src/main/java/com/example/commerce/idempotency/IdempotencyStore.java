@@ -0,0 +1,115 @@
+package com.example.commerce.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * First responses of requests sent with an Idempotency-Key header, so a client retrying after a timeout gets the
+ * original result instead of a second order or payment. Entries are keyed by operation, owner and key, bounded in
+ * number and expire after commerce.idempotency.ttl.
+ * <p>
+ * The entry is claimed before the request runs: a duplicate arriving meanwhile waits for that response instead of
+ * running again. Failed requests are not kept, so the client can retry them with the same key. Like the other caches
+ * the store is local to the instance, retries routed to another instance are not recognised.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<StoreKey, Entry> entries;
+    private final Duration inFlightTimeout;
+
+    public IdempotencyStore(@Value("${commerce.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${commerce.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${commerce.idempotency.in-flight-timeout:30s}") Duration inFlightTimeout) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.inFlightTimeout = inFlightTimeout;
+    }
+
+    /**
+     * Runs the action once per operation, owner and key and answers every repetition with its response. The request
+     * is compared with the one first sent under the key, reusing a key for a different request is rejected with 422.
+     * Without a key the action just runs.
+     */
+    public <T> ResponseEntity<T> execute(String operation, Object owner, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        StoreKey storeKey = new StoreKey(operation, owner, key);
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(storeKey, entry);
+        if (existing != null) {
+            return replay(storeKey, existing, request);
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.asMap().remove(storeKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(StoreKey storeKey, Entry existing, Object request) {
+        if (!existing.request().equals(request)) {
+            log.warn("{} {} reused for a different {} request", HEADER, storeKey.key(), storeKey.operation());
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+        }
+
+        ResponseEntity<T> original;
+        try {
+            original = (ResponseEntity<T>) existing.response().get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            // The request waited on failed, this duplicate fails alike; a later retry runs it again
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+        }
+
+        log.info("Replaying the response of {} request with {} {}", storeKey.operation(), HEADER, storeKey.key());
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    private record StoreKey(String operation, Object owner, String key) {
+    }
+
+    private record Entry(Object request, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -25,6 +25,14 @@ public class Category {
     @Column(nullable = false, unique = true, length = 255)
     private String name;
 
+    // Applies to the products of this category that have no threshold of their own
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,52 @@
+package com.example.commerce.model;
+
+import com.example.commerce.model.enums.InventoryMovement;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "inventory_ledger")
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLedgerEntry {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "entry_id")
+    private UUID entryId;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private InventoryMovement movement;
+
+    // Units moved; delta is the resulting change of the available stock, 0 for a sale
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -51,6 +51,14 @@ public class Order {
     @Column(nullable = false, length = 50)
     private OrderStatus status;
 
+    // Set while the order is pending, see ReservationExpiryService
+    @Column(name = "reservation_expires_at")
+    private LocalDateTime reservationExpiresAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -43,6 +43,10 @@ public class Payment {
     @Column(name = "transaction_id", unique = true, length = 255)
     private String transactionId;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
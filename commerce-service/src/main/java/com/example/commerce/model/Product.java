@@ -1,19 +1,24 @@
 package com.example.commerce.model;
 
+import com.example.commerce.search.ProductNameListener;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductNameListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,18 +46,41 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
 
+    // 0 for the usual single stock column, otherwise the number of rows in product_stock_buckets holding the stock
+    @Column(name = "stock_buckets", nullable = false)
+    private int stockBuckets;
+
+    @Formula("(select coalesce(sum(b.stock), 0) from product_stock_buckets b where b.product_id = product_id)")
+    @Setter(AccessLevel.NONE)
+    private int bucketStock;
+
+    // Falls back to the category's threshold when null, see LowStockMonitor
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
     @Column(name = "image_url", nullable = false)
     private String imageUrl;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // The stock reported to clients, exact for sharded products too. Deliberately not a getter, so neither Jackson nor
+    // JPA treat it as a property of the entity
+    public int availableStock() {
+        return stockBuckets == 0 ? stock : bucketStock;
+    }
+
     @PrePersist
     protected void onCreate() {
-        createdAt = updatedAt = LocalDateTime.now();
+        // Truncated to the column precision so keyset cursors built from in-memory entities match the stored value
+        createdAt = updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @PreUpdate
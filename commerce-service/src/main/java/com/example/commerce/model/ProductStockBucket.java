@@ -0,0 +1,42 @@
+package com.example.commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One slice of the stock of a sharded product, see InventoryService. Bucket rows are never deleted while the product
+ * exists: when a product is resharded to fewer buckets the surplus rows are emptied, which keeps the sum of their
+ * versions, part of the product ETag, increasing.
+ */
+@Entity
+@Table(name = "product_stock_buckets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockBucket {
+
+    @EmbeddedId
+    private ProductStockBucketId id;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.commerce.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Embeddable
+@Getter
+@Setter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockBucketId implements Serializable {
+
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Column(name = "bucket")
+    private int bucket;
+}
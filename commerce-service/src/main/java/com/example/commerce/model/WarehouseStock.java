@@ -0,0 +1,41 @@
+package com.example.commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units of a product on hand in one warehouse and not yet allocated to an order. The version orders the in-memory
+ * copies of this row, see WarehouseStockIndex.
+ */
+@Entity
+@Table(name = "warehouse_stock")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStock {
+
+    @EmbeddedId
+    private WarehouseStockId id;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
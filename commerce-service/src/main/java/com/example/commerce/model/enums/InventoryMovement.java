@@ -0,0 +1,8 @@
+package com.example.commerce.model.enums;
+
+public enum InventoryMovement {
+    ADJUSTMENT,  // Stock set by an admin, product creation or import
+    RESERVATION, // Units taken from stock by an order item
+    RELEASE,     // Reserved units given back, e.g. item removed or order cancelled
+    SALE         // Reserved units sold with a completed order, the stock already moved on reservation
+}
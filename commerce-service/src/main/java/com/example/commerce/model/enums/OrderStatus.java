@@ -1,7 +1,23 @@
 package com.example.commerce.model.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,    // Order is created but yet finalized or paid
     COMPLETED,  // Payment is successful, and the order is finalized
-    CANCELLED   // Order is cancelled (can be added in the future)
+    CANCELLED;  // Order is cancelled, its stock was given back
+
+    // Legal moves of the order state machine; CANCELLED is final
+    private static final Set<OrderStatus> FROM_PENDING = EnumSet.of(COMPLETED, CANCELLED);
+    private static final Set<OrderStatus> FROM_COMPLETED = EnumSet.of(CANCELLED);
+
+    // Staying in the same status is always allowed and changes nothing
+    public boolean canTransitionTo(OrderStatus next) {
+        return next == this || switch (this) {
+            case PENDING -> FROM_PENDING.contains(next);
+            case COMPLETED -> FROM_COMPLETED.contains(next);
+            case CANCELLED -> false;
+        };
+    }
 }
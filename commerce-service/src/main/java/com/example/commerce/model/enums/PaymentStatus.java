@@ -1,8 +1,24 @@
 package com.example.commerce.model.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum PaymentStatus {
     PENDING,    // Payment data has not been provided or payment is not yet processed
     COMPLETED,  // Payment data is provided, and the payment is successful
     FAILED,     // Payment attempt failed (for later integration with real payment gateways)
-    CANCELLED   // Payment was canceled by the user or due to inactivity
+    CANCELLED;  // Payment was canceled by the user or due to inactivity
+
+    // Legal moves of the payment state machine; a failed payment may be retried, COMPLETED and CANCELLED are final
+    private static final Set<PaymentStatus> FROM_PENDING = EnumSet.of(COMPLETED, FAILED, CANCELLED);
+    private static final Set<PaymentStatus> FROM_FAILED = EnumSet.of(PENDING, CANCELLED);
+
+    // Staying in the same status is always allowed and changes nothing
+    public boolean canTransitionTo(PaymentStatus next) {
+        return next == this || switch (this) {
+            case PENDING -> FROM_PENDING.contains(next);
+            case FAILED -> FROM_FAILED.contains(next);
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
 }
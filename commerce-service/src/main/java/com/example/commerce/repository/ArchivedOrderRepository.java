@@ -0,0 +1,52 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.model.ArchivedOrder;
+import com.example.commerce.model.enums.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, UUID> {
+
+    // Same response columns as OrderRepository.RESPONSE_PROJECTION; the payload is never read for them
+    String RESPONSE_PROJECTION = "new com.example.commerce.dto.OrderResponseDTO(" +
+            "a.orderId, a.userId, a.street, a.city, a.state, a.country, a.postalCode, a.totalPrice, " +
+            "CAST(a.status AS String), a.createdAt, a.updatedAt)";
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM ArchivedOrder a WHERE a.orderId = :orderId")
+    Optional<OrderResponseDTO> findResponseById(@Param("orderId") UUID orderId);
+
+    @Query("SELECT new com.example.commerce.repository.EntityVersion(a.version, a.updatedAt) FROM ArchivedOrder a WHERE a.orderId = :orderId")
+    Optional<EntityVersion> findVersionById(@Param("orderId") UUID orderId);
+
+    // Keyset pagination like on orders, backed by the indexes from V13__add_order_archive.sql
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM ArchivedOrder a WHERE a.userId = :userId " +
+            "ORDER BY a.createdAt DESC, a.orderId DESC")
+    List<OrderResponseDTO> findFirstPageByUserId(@Param("userId") UUID userId, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM ArchivedOrder a WHERE a.userId = :userId " +
+            "AND a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.orderId < :orderId) " +
+            "ORDER BY a.createdAt DESC, a.orderId DESC")
+    List<OrderResponseDTO> findPageBeforeByUserId(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("orderId") UUID orderId, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM ArchivedOrder a WHERE a.userId = :userId AND a.status = :status " +
+            "ORDER BY a.createdAt DESC, a.orderId DESC")
+    List<OrderResponseDTO> findFirstPageByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") OrderStatus status, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM ArchivedOrder a WHERE a.userId = :userId AND a.status = :status " +
+            "AND a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.orderId < :orderId) " +
+            "ORDER BY a.createdAt DESC, a.orderId DESC")
+    List<OrderResponseDTO> findPageBeforeByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") OrderStatus status,
+                                                           @Param("createdAt") LocalDateTime createdAt, @Param("orderId") UUID orderId,
+                                                           Limit limit);
+}
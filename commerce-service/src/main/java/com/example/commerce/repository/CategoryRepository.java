@@ -2,11 +2,20 @@ package com.example.commerce.repository;
 
 import com.example.commerce.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
     boolean existsByName(String name);
+
+    @Query("SELECT new com.example.commerce.repository.EntityVersion(c.version, c.updatedAt) FROM Category c WHERE c.categoryId = :categoryId")
+    Optional<EntityVersion> findVersionById(@Param("categoryId") UUID categoryId); // ETag lookup that skips hydration
+
+    @Query("SELECT new com.example.commerce.repository.CollectionVersion(COUNT(c), COALESCE(SUM(c.version), 0L), MAX(c.updatedAt)) FROM Category c")
+    CollectionVersion findCollectionVersion(); // ETag of GET /api/categories
 }
@@ -0,0 +1,19 @@
+package com.example.commerce.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Aggregate version of a whole table for conditional GETs on list endpoints. An insert moves the latest update time
+ * and the row count, an update moves the version sum and the latest update time, and a delete moves the row count.
+ */
+public record CollectionVersion(Long count, Long versionSum, LocalDateTime lastUpdatedAt) {
+
+    public String eTag() {
+        return "\"" + count + "-" + versionSum + "-" + lastModified() + "\"";
+    }
+
+    public long lastModified() {
+        return lastUpdatedAt != null ? lastUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.commerce.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Optimistic lock version and last modification time of a single row, read without loading the entity. It is all a
+ * conditional GET needs to decide between 304 and a full response.
+ */
+public record EntityVersion(Long version, LocalDateTime updatedAt) {
+
+    public String eTag() {
+        return "\"" + version + "\"";
+    }
+
+    // Epoch millis for Last-Modified, -1 when unknown (rows written before updated_at was maintained)
+    public long lastModified() {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.model.InventoryLedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryLedgerRepository extends JpaRepository<InventoryLedgerEntry, UUID> {
+
+    @Query("SELECT e FROM InventoryLedgerEntry e WHERE e.productId = :productId ORDER BY e.createdAt DESC")
+    List<InventoryLedgerEntry> findLatestByProductId(@Param("productId") UUID productId, Limit limit);
+
+    @Query("SELECT COALESCE(SUM(e.delta), 0) FROM InventoryLedgerEntry e WHERE e.productId = :productId AND e.createdAt > :after")
+    long sumDeltaAfter(@Param("productId") UUID productId, @Param("after") LocalDateTime after);
+
+    // Net movement per product between its latest snapshot and the horizon, for the products that moved at all
+    @Query("SELECT e.productId AS productId, SUM(e.delta) AS delta FROM InventoryLedgerEntry e " +
+            "WHERE e.createdAt <= :horizon AND e.createdAt > COALESCE(" +
+            "(SELECT MAX(s.coveredUntil) FROM InventorySnapshot s WHERE s.productId = e.productId), :origin) " +
+            "GROUP BY e.productId")
+    List<ProductDelta> sumDeltaSinceLatestSnapshot(@Param("horizon") LocalDateTime horizon, @Param("origin") LocalDateTime origin);
+
+    interface ProductDelta {
+        UUID getProductId();
+        Long getDelta();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.model.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, UUID> {
+
+    Optional<InventorySnapshot> findFirstByProductIdOrderByCoveredUntilDesc(UUID productId);
+
+    @Query("SELECT s FROM InventorySnapshot s WHERE s.productId IN :productIds AND s.coveredUntil = " +
+            "(SELECT MAX(s2.coveredUntil) FROM InventorySnapshot s2 WHERE s2.productId = s.productId)")
+    List<InventorySnapshot> findLatestByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+}
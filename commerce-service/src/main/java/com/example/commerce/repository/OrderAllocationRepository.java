@@ -0,0 +1,27 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.model.OrderAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderAllocationRepository extends JpaRepository<OrderAllocation, UUID> {
+    boolean existsByOrderId(UUID orderId);
+
+    List<OrderAllocation> findByOrderIdOrderByWarehouseIdAscProductIdAsc(UUID orderId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OrderAllocation a WHERE a.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") UUID orderId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OrderAllocation a WHERE a.orderId IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
+}
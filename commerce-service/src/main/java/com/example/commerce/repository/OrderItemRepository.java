@@ -1,11 +1,16 @@
 package com.example.commerce.repository;
 
+import com.example.commerce.dto.OrderItemResponseDTO;
 import com.example.commerce.model.Order;
 import com.example.commerce.model.OrderItem;
 import com.example.commerce.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,4 +22,37 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
     Optional<OrderItem> findByOrderAndProduct(Order order, Product product);
 
     List<OrderItem> findByOrder(Order order);
+
+    // The lines of one order for a set of products, so a batch of upserts finds its existing items in one query
+    List<OrderItem> findByOrderOrderIdAndProductProductIdIn(UUID orderId, Collection<UUID> productIds);
+
+    // Selects just the response columns, joining products for the name only; the order is never loaded
+    @Query("SELECT new com.example.commerce.dto.OrderItemResponseDTO(oi.orderItemId, oi.order.orderId, p.productId, " +
+            "oi.quantity, oi.price, p.name, oi.createdAt, oi.updatedAt) " +
+            "FROM OrderItem oi JOIN oi.product p WHERE oi.order.orderId = :orderId")
+    List<OrderItemResponseDTO> findResponsesByOrderId(@Param("orderId") UUID orderId);
+
+    // Units sold per product, used to rank autocomplete suggestions by popularity
+    @Query("SELECT oi.product.productId AS productId, SUM(oi.quantity) AS unitsSold FROM OrderItem oi GROUP BY oi.product.productId")
+    List<ProductSales> sumQuantityByProduct();
+
+    // Units held by a batch of orders, for giving them back when the orders expire
+    @Query("SELECT oi.order.orderId AS orderId, oi.product.productId AS productId, oi.quantity AS quantity FROM OrderItem oi " +
+            "WHERE oi.order.orderId IN :orderIds")
+    List<HeldQuantity> findHeldQuantities(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OrderItem oi WHERE oi.order.orderId IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    interface HeldQuantity {
+        UUID getOrderId();
+        UUID getProductId();
+        Integer getQuantity();
+    }
+
+    interface ProductSales {
+        UUID getProductId();
+        Long getUnitsSold();
+    }
 }
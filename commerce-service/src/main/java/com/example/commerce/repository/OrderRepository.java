@@ -1,15 +1,171 @@
 package com.example.commerce.repository;
 
+import com.example.commerce.dto.OrderResponseDTO;
 import com.example.commerce.model.Order;
 import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.model.enums.PaymentMethod;
+import com.example.commerce.model.enums.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByUserUserId(UUID userId);
     List<Order> findByUserUserIdAndStatus(UUID userId, OrderStatus status);
+
+    // Selects just the response columns; the user id is read from the foreign key, so the eager user is never loaded
+    String RESPONSE_PROJECTION = "new com.example.commerce.dto.OrderResponseDTO(" +
+            "o.orderId, o.user.userId, o.street, o.city, o.state, o.country, o.postalCode, o.totalPrice, " +
+            "CAST(o.status AS String), o.createdAt, o.updatedAt)";
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Order o WHERE o.orderId = :orderId")
+    Optional<OrderResponseDTO> findResponseById(@Param("orderId") UUID orderId);
+
+    // The order with its items and payment in one statement: one row per item, or a single row without item columns.
+    // Only the columns of the detail page are selected, so neither the eager user nor the payment's order is loaded
+    String DETAIL_SELECT = "SELECT o.orderId AS orderId, o.user.userId AS userId, o.street AS street, o.city AS city, " +
+            "o.state AS state, o.country AS country, o.postalCode AS postalCode, o.totalPrice AS totalPrice, o.status AS status, " +
+            "o.version AS version, o.createdAt AS createdAt, o.updatedAt AS updatedAt, " +
+            "oi.orderItemId AS orderItemId, p.productId AS productId, p.name AS productName, oi.quantity AS quantity, " +
+            "oi.price AS price, oi.createdAt AS itemCreatedAt, oi.updatedAt AS itemUpdatedAt, " +
+            "pay.paymentId AS paymentId, pay.amount AS paymentAmount, pay.paymentMethod AS paymentMethod, " +
+            "pay.status AS paymentStatus, pay.transactionId AS transactionId, pay.createdAt AS paymentCreatedAt " +
+            "FROM Order o LEFT JOIN OrderItem oi ON oi.order = o LEFT JOIN oi.product p LEFT JOIN Payment pay ON pay.order = o ";
+
+    @Query(DETAIL_SELECT + "WHERE o.orderId = :orderId ORDER BY oi.createdAt, oi.orderItemId")
+    List<OrderDetailRow> findDetailRowsById(@Param("orderId") UUID orderId);
+
+    @Query(DETAIL_SELECT + "WHERE o.orderId IN :orderIds ORDER BY o.orderId, oi.createdAt, oi.orderItemId")
+    List<OrderDetailRow> findDetailRowsByIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Keyset pagination on (created_at, order_id) descending, backed by the indexes from V10__add_order_history_indexes.sql
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Order o WHERE o.user.userId = :userId " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderResponseDTO> findFirstPageByUserId(@Param("userId") UUID userId, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Order o WHERE o.user.userId = :userId " +
+            "AND o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.orderId < :orderId) " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderResponseDTO> findPageBeforeByUserId(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("orderId") UUID orderId, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Order o WHERE o.user.userId = :userId AND o.status = :status " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderResponseDTO> findFirstPageByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") OrderStatus status, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Order o WHERE o.user.userId = :userId AND o.status = :status " +
+            "AND o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.orderId < :orderId) " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderResponseDTO> findPageBeforeByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") OrderStatus status,
+                                                           @Param("createdAt") LocalDateTime createdAt, @Param("orderId") UUID orderId,
+                                                           Limit limit);
+
+    @Query("SELECT new com.example.commerce.repository.EntityVersion(o.version, o.updatedAt) FROM Order o WHERE o.orderId = :orderId")
+    Optional<EntityVersion> findVersionById(@Param("orderId") UUID orderId); // ETag lookup that skips the eager user join
+
+    // Serializes the status changes of an order with its warehouse allocation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") UUID orderId);
+
+    // Re-checks the deadline in the table, so orders paid or refreshed after their timer was set are left alone.
+    // Orders from before reservation deadlines were stored have none and expire on the timer alone
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = com.example.commerce.model.enums.OrderStatus.CANCELLED, o.reservationExpiresAt = NULL, " +
+            "o.version = o.version + 1, o.updatedAt = LOCAL DATETIME " +
+            "WHERE o.orderId = :orderId AND o.status = com.example.commerce.model.enums.OrderStatus.PENDING " +
+            "AND (o.reservationExpiresAt IS NULL OR o.reservationExpiresAt <= :now)")
+    int cancelIfExpired(@Param("orderId") UUID orderId, @Param("now") LocalDateTime now);
+
+    // Locks the rows of a chunk of a bulk status update in id order, so concurrent bulk updates cannot deadlock, and
+    // reads their statuses, which then hold until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.orderId AS orderId, o.status AS status FROM Order o WHERE o.orderId IN :orderIds ORDER BY o.orderId")
+    List<OrderStatusRow> lockStatusesByIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Bulk updates skip the entity lifecycle, so the version and update time are bumped here
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.reservationExpiresAt = NULL, " +
+            "o.version = o.version + 1, o.updatedAt = LOCAL DATETIME WHERE o.orderId IN :orderIds")
+    int updateStatus(@Param("orderIds") Collection<UUID> orderIds, @Param("status") OrderStatus status);
+
+    // Oldest first, the bound on created_at limits the scan to the partitions of the months before the cutoff. The rows
+    // stay locked until archived, so a late cancel of a completed order waits and then finds it gone; lock timeout -2
+    // is SKIP LOCKED, rows already locked by another instance's run are left to that run
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o.orderId FROM Order o WHERE o.createdAt < :cutoff AND o.status IN (" +
+            "com.example.commerce.model.enums.OrderStatus.COMPLETED, com.example.commerce.model.enums.OrderStatus.CANCELLED) " +
+            "ORDER BY o.createdAt, o.orderId")
+    List<UUID> lockArchivableIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.orderId IN :orderIds AND o.createdAt < :cutoff")
+    int deleteArchived(@Param("orderIds") Collection<UUID> orderIds, @Param("cutoff") LocalDateTime cutoff);
+
+    // See V12__partition_orders_by_month.sql and V15__move_default_partition_rows.sql, PostgreSQL only. Query methods default to read-only transactions
+    @Transactional
+    @Query(value = "SELECT create_monthly_partitions(:parent, CAST(:firstMonth AS DATE), CAST(:lastMonth AS DATE))", nativeQuery = true)
+    int createMonthlyPartitions(@Param("parent") String parent, @Param("firstMonth") LocalDate firstMonth,
+                                @Param("lastMonth") LocalDate lastMonth);
+
+    @Query("SELECT o.orderId AS orderId, o.reservationExpiresAt AS reservationExpiresAt, o.updatedAt AS updatedAt " +
+            "FROM Order o WHERE o.status = com.example.commerce.model.enums.OrderStatus.PENDING")
+    List<PendingReservation> findPendingReservations();
+
+    interface OrderStatusRow {
+        UUID getOrderId();
+        OrderStatus getStatus();
+    }
+
+    interface PendingReservation {
+        UUID getOrderId();
+        LocalDateTime getReservationExpiresAt();
+        LocalDateTime getUpdatedAt();
+    }
+
+    interface OrderDetailRow {
+        UUID getOrderId();
+        UUID getUserId();
+        String getStreet();
+        String getCity();
+        String getState();
+        String getCountry();
+        String getPostalCode();
+        BigDecimal getTotalPrice();
+        OrderStatus getStatus();
+        long getVersion();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        UUID getOrderItemId();
+        UUID getProductId();
+        String getProductName();
+        Integer getQuantity();
+        BigDecimal getPrice();
+        LocalDateTime getItemCreatedAt();
+        LocalDateTime getItemUpdatedAt();
+        UUID getPaymentId();
+        BigDecimal getPaymentAmount();
+        PaymentMethod getPaymentMethod();
+        PaymentStatus getPaymentStatus();
+        String getTransactionId();
+        LocalDateTime getPaymentCreatedAt();
+    }
 }
@@ -1,11 +1,17 @@
 package com.example.commerce.repository;
 
+import com.example.commerce.dto.PaymentResponseDTO;
 import com.example.commerce.model.Payment;
 import com.example.commerce.model.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -14,4 +20,14 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     List<Payment> findByStatus(PaymentStatus status);
     boolean existsByOrderOrderId(UUID orderId);
     boolean existsByTransactionId(String transactionId);
+
+    // Selects just the response columns; the order id is read from the foreign key, so the eager order is never loaded
+    @Query("SELECT new com.example.commerce.dto.PaymentResponseDTO(p.paymentId, p.order.orderId, p.amount, " +
+            "p.paymentMethod, CAST(p.status AS String), p.transactionId, p.createdAt) " +
+            "FROM Payment p WHERE p.paymentId = :paymentId")
+    Optional<PaymentResponseDTO> findResponseById(@Param("paymentId") UUID paymentId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Payment p WHERE p.order.orderId IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
 }
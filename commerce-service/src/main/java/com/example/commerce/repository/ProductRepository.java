@@ -1,17 +1,114 @@
 package com.example.commerce.repository;
 
+import com.example.commerce.dto.ProductResponseDTO;
 import com.example.commerce.model.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    // Sharded products keep products.stock at zero and hold their stock in product_stock_buckets
+    String AVAILABLE_STOCK = "CASE WHEN p.stockBuckets = 0 THEN p.stock ELSE (SELECT CAST(COALESCE(SUM(b.stock), 0) AS Integer) " +
+            "FROM ProductStockBucket b WHERE b.id.productId = p.productId) END";
+
+    // Selects just the response columns; the category id is read from the foreign key, without joining categories
+    String RESPONSE_PROJECTION = "new com.example.commerce.dto.ProductResponseDTO(" +
+            "p.productId, p.name, p.description, p.price, " + AVAILABLE_STOCK + ", p.imageUrl, p.category.categoryId)";
+
     List<Product> findByCategory_CategoryId(UUID categoryId); // Fetch products by category
     @Query("SELECT COUNT(p) > 0 FROM Product p WHERE LOWER(p.name) = LOWER(TRIM(:name))")
     boolean existsByNameIgnoreCase(@Param("name") String name); // Check for duplicate product names
+    @Query("SELECT LOWER(p.name) FROM Product p WHERE LOWER(p.name) IN :names")
+    List<String> findExistingLowerCaseNames(@Param("names") Collection<String> names); // Set-based duplicate check for bulk imports
+
+    // All products of a checkout in one IN query, categories included so they are not loaded one by one
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllByProductIdIn(Collection<UUID> productIds);
+
+    // Keyset pagination on (created_at, product_id), backed by the indexes from V2__add_product_keyset_indexes.sql
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt, p.productId")
+    List<Product> findFirstPage(Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p " +
+            "WHERE p.createdAt >= :createdAt AND (p.createdAt > :createdAt OR p.productId > :productId) " +
+            "ORDER BY p.createdAt, p.productId")
+    List<Product> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("productId") UUID productId, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId ORDER BY p.createdAt, p.productId")
+    List<Product> findFirstPageByCategory(@Param("categoryId") UUID categoryId, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId " +
+            "AND p.createdAt >= :createdAt AND (p.createdAt > :createdAt OR p.productId > :productId) " +
+            "ORDER BY p.createdAt, p.productId")
+    List<Product> findPageAfterByCategory(@Param("categoryId") UUID categoryId, @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("productId") UUID productId, Limit limit);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Product p WHERE p.productId = :productId")
+    Optional<ProductResponseDTO> findResponseById(@Param("productId") UUID productId);
+
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Product p WHERE p.productId IN :productIds")
+    List<ProductResponseDTO> findResponsesByIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    // ETag lookup that skips hydration. Reservations of sharded products only touch their bucket rows, so those
+    // versions and update times count as well; bucket rows are never deleted, which keeps the sum increasing
+    @Query("SELECT new com.example.commerce.repository.EntityVersion(" +
+            "p.version + (SELECT COALESCE(SUM(b.version), 0L) FROM ProductStockBucket b WHERE b.id.productId = p.productId), " +
+            "COALESCE((SELECT MAX(b.updatedAt) FROM ProductStockBucket b WHERE b.id.productId = p.productId AND b.updatedAt > p.updatedAt), p.updatedAt)) " +
+            "FROM Product p WHERE p.productId = :productId")
+    Optional<EntityVersion> findVersionById(@Param("productId") UUID productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId = :productId")
+    Optional<Product> findByIdForUpdate(@Param("productId") UUID productId);
+
+    // Check and decrement in one statement: the row lock queues concurrent reservations of a product instead of letting
+    // them oversell. Bulk updates skip the entity lifecycle, so the version and update time are bumped here
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.version = p.version + 1, p.updatedAt = LOCAL DATETIME " +
+            "WHERE p.productId = :productId AND p.stockBuckets = 0 AND p.stock >= :quantity")
+    int decrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.version = p.version + 1, p.updatedAt = LOCAL DATETIME " +
+            "WHERE p.productId = :productId AND p.stockBuckets = 0")
+    int incrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.lowStockThreshold = :threshold, p.version = p.version + 1, p.updatedAt = LOCAL DATETIME " +
+            "WHERE p.productId = :productId")
+    int updateLowStockThreshold(@Param("productId") UUID productId, @Param("threshold") Integer threshold);
+
+    @Query("SELECT " + AVAILABLE_STOCK + " FROM Product p WHERE p.productId = :productId")
+    Optional<Integer> findStockById(@Param("productId") UUID productId);
+
+    @Query("SELECT p.stockBuckets FROM Product p WHERE p.productId = :productId")
+    Optional<Integer> findStockBucketsById(@Param("productId") UUID productId);
+
+    // Server-side cursor for catalog exports: rows arrive in fetch-size chunks as DTOs, never as managed entities
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT " + RESPONSE_PROJECTION + " FROM Product p ORDER BY p.createdAt, p.productId")
+    Stream<ProductResponseDTO> streamAllForExport();
 }
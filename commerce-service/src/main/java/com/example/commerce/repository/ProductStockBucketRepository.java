@@ -0,0 +1,36 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.model.ProductStockBucket;
+import com.example.commerce.model.ProductStockBucketId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProductStockBucketRepository extends JpaRepository<ProductStockBucket, ProductStockBucketId> {
+
+    // SKIP LOCKED: a bucket held by another reservation is passed over instead of waited for, so the caller never
+    // waits, never keeps a lock on a bucket it does not use, and concurrent reservations spread over the buckets.
+    // Native, since Hibernate drops the SKIP LOCKED hint on H2, which then waits and keeps rows that failed the recheck
+    @Query(value = "SELECT * FROM product_stock_buckets WHERE product_id = :productId AND stock >= :quantity " +
+            "ORDER BY bucket FETCH FIRST 1 ROWS ONLY FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ProductStockBucket> findFirstUnlockedWithStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductStockBucket b SET b.stock = b.stock + :quantity, b.version = b.version + 1, b.updatedAt = LOCAL DATETIME " +
+            "WHERE b.id.productId = :productId AND b.id.bucket = :bucket")
+    int incrementStock(@Param("productId") UUID productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    // Bucket order, so that every caller locking several buckets of a product takes the locks in the same sequence
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ProductStockBucket b WHERE b.id.productId = :productId ORDER BY b.id.bucket")
+    List<ProductStockBucket> findAllForUpdate(@Param("productId") UUID productId);
+}
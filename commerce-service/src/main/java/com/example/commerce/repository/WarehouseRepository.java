@@ -0,0 +1,15 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.model.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WarehouseRepository extends JpaRepository<Warehouse, UUID> {
+    boolean existsByCode(String code);
+
+    List<Warehouse> findByActiveTrue();
+}
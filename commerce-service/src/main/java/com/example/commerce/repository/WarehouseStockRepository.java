@@ -0,0 +1,56 @@
+package com.example.commerce.repository;
+
+import com.example.commerce.model.WarehouseStock;
+import com.example.commerce.model.WarehouseStockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, WarehouseStockId> {
+
+    // Same check-and-decrement as ProductRepository.decrementStock, the in-memory plan may be stale
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WarehouseStock s SET s.stock = s.stock - :quantity, s.version = s.version + 1, s.updatedAt = LOCAL DATETIME " +
+            "WHERE s.id.warehouseId = :warehouseId AND s.id.productId = :productId AND s.stock >= :quantity")
+    int decrementStock(@Param("warehouseId") UUID warehouseId, @Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WarehouseStock s SET s.stock = s.stock + :quantity, s.version = s.version + 1, s.updatedAt = LOCAL DATETIME " +
+            "WHERE s.id.warehouseId = :warehouseId AND s.id.productId = :productId")
+    int incrementStock(@Param("warehouseId") UUID warehouseId, @Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    // Undoes a decrementStock of the same transaction, version included, so that a refresh of the in-memory copy reads
+    // the row exactly as it was committed
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WarehouseStock s SET s.stock = s.stock + :quantity, s.version = s.version - 1 " +
+            "WHERE s.id.warehouseId = :warehouseId AND s.id.productId = :productId")
+    int restoreStock(@Param("warehouseId") UUID warehouseId, @Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    // Read back after a change; the row is still locked, so this is the state the transaction commits
+    @Query("SELECT s.id.warehouseId AS warehouseId, s.id.productId AS productId, s.stock AS stock, s.version AS version " +
+            "FROM WarehouseStock s WHERE s.id.warehouseId = :warehouseId AND s.id.productId = :productId")
+    Optional<StockLevel> findLevel(@Param("warehouseId") UUID warehouseId, @Param("productId") UUID productId);
+
+    @Query("SELECT s.id.warehouseId AS warehouseId, s.id.productId AS productId, s.stock AS stock, s.version AS version " +
+            "FROM WarehouseStock s WHERE s.id.productId IN :productIds")
+    List<StockLevel> findLevelsByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("SELECT s.id.warehouseId AS warehouseId, s.id.productId AS productId, s.stock AS stock, s.version AS version " +
+            "FROM WarehouseStock s")
+    List<StockLevel> findAllLevels();
+
+    interface StockLevel {
+        UUID getWarehouseId();
+        UUID getProductId();
+        Integer getStock();
+        Long getVersion();
+    }
+}
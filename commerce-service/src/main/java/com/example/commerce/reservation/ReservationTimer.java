@@ -0,0 +1,74 @@
+package com.example.commerce.reservation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Expiry deadlines of the stock held by pending orders. They live in a timing wheel with one second ticks, so the
+ * expiry job only ever sees the orders that are due instead of scanning the orders table. The wheel covers about
+ * 194 days (64 slots on 4 levels); it is rebuilt from the table on startup, see ReservationExpiryService.
+ */
+@Component
+public class ReservationTimer {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+
+    private final Duration ttl;
+    private final TimingWheel<UUID> wheel;
+
+    public ReservationTimer(@Value("${commerce.reservations.ttl:30m}") Duration ttl) {
+        this.ttl = ttl;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, LEVELS, System.currentTimeMillis());
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    // Deadline of a reservation made or refreshed now
+    public LocalDateTime nextDeadline() {
+        return LocalDateTime.now().plus(ttl);
+    }
+
+    public synchronized void schedule(UUID orderId, LocalDateTime expiresAt) {
+        wheel.schedule(orderId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public synchronized void cancel(UUID orderId) {
+        wheel.cancel(orderId);
+    }
+
+    // For orders leaving pending in the current transaction: if it rolls back they are still pending and keep their timer
+    public void cancelAfterCommit(Collection<UUID> orderIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderIds.forEach(this::cancel);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderIds.forEach(ReservationTimer.this::cancel);
+            }
+        });
+    }
+
+    // Removes and returns the orders whose deadline passed
+    public synchronized List<UUID> pollExpired() {
+        return wheel.advance(System.currentTimeMillis());
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.commerce.reservation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one slot per tick, every level above covers a whole rotation of the level
+ * below with each of its slots. A timer sits in the lowest level whose range reaches its deadline and is moved down
+ * when the clock gets close, so scheduling and cancelling are O(1) and a tick only touches the timers that are due
+ * or being moved down. Deadlines beyond the top level are parked in its farthest slot and placed again from there.
+ * <p>
+ * Not thread-safe, callers synchronize.
+ */
+final class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final int levels;
+    // Ticks covered by one slot of each level: 1, wheelSize, wheelSize^2, ...
+    private final long[] slotSpans;
+    private final List<List<Set<K>>> wheels;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.slotSpans = new long[levels + 1];
+        this.wheels = new ArrayList<>(levels);
+        long span = 1;
+        for (int level = 0; level <= levels; level++) {
+            slotSpans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        for (int level = 0; level < levels; level++) {
+            List<Set<K>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new HashSet<>());
+            }
+            wheels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // Replaces an earlier deadline of the same key; a deadline in the past fires on the next tick
+    void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // Rounded up, so a timer never fires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(key, deadlineTick, currentTick + 1);
+    }
+
+    boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot().remove(key);
+        return true;
+    }
+
+    // Moves the clock forward to the given time and returns the keys whose deadlines passed, earliest first
+    List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (timers.isEmpty()) {
+            currentTick = Math.max(currentTick, targetTick);
+            return List.of();
+        }
+
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Higher levels first, so a timer can move down several levels within the same tick
+            for (int level = levels - 1; level > 0; level--) {
+                if (currentTick % slotSpans[level] == 0) {
+                    Set<K> slot = slot(level, currentTick);
+                    if (!slot.isEmpty()) {
+                        List<K> keys = new ArrayList<>(slot);
+                        slot.clear();
+                        for (K key : keys) {
+                            place(key, timers.get(key).deadlineTick(), currentTick);
+                        }
+                    }
+                }
+            }
+
+            Set<K> due = slot(0, currentTick);
+            for (K key : due) {
+                timers.remove(key);
+                expired.add(key);
+            }
+            due.clear();
+        }
+        return expired;
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    private void place(K key, long deadlineTick, long earliestTick) {
+        long tick = Math.max(deadlineTick, earliestTick);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= slotSpans[level + 1]) {
+            level++;
+        }
+        // Beyond the range of the top level: park in its farthest slot, the next pass places it again
+        long slotTick = Math.min(tick, currentTick + slotSpans[levels] - 1);
+        Set<K> slot = slot(level, slotTick);
+        slot.add(key);
+        timers.put(key, new Timer<>(deadlineTick, slot));
+    }
+
+    private Set<K> slot(int level, long tick) {
+        return wheels.get(level).get((int) ((tick / slotSpans[level]) % wheelSize));
+    }
+
+    private record Timer<K>(long deadlineTick, Set<K> slot) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.commerce.search;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size Bloom filter over string keys. {@link #mightContain} never returns false for a key that was put, and
+ * returns true for an absent key with roughly the configured false positive rate as long as no more than the expected
+ * number of keys were put.
+ * <p>
+ * The k bit positions of a key are derived from two 64-bit hashes (Kirsch-Mitzenmacher), so every key is hashed once.
+ * Keys cannot be removed.
+ * <p>
+ * Not thread-safe, {@link ProductNameFilter} serializes writers against readers.
+ */
+class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private long insertions;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the false positive rate within (0, 1)");
+        }
+        // m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hash functions minimize the false positive rate for n keys
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+        this.bitCount = (long) words.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+    }
+
+    void put(String key) {
+        long hash1 = hash(key);
+        long hash2 = secondHash(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        insertions++;
+    }
+
+    boolean mightContain(String key) {
+        long hash1 = hash(key);
+        long hash2 = secondHash(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long insertions() {
+        return insertions;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    // (1 - e^(-kn/m))^k for the keys put so far
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions / bitCount), hashCount);
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that all 64 bits avalanche
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Odd, so that the k probes never collapse onto the same bit
+    private static long secondHash(long hash1) {
+        return mix(hash1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53e0c87L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.commerce.search;
+
+import com.example.commerce.dto.PriceBucketCountDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record FacetResult(long totalCount, List<UUID> productIds, Map<UUID, Long> categoryCounts,
+                          List<PriceBucketCountDTO> priceBuckets) {
+}
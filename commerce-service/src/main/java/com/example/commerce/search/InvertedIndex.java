@@ -0,0 +1,211 @@
+package com.example.commerce.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Inverted index over product names and descriptions, ranked with Okapi BM25.
+ * <p>
+ * Every indexed product gets a dense int document id, and postings are kept as parallel primitive arrays in
+ * ascending document order. Removing a product only clears its id slot; the stale postings are skipped at query
+ * time and dropped by {@link #compact()} once they outnumber the live documents.
+ * <p>
+ * Not thread-safe, {@link ProductSearchIndex} serializes writers against readers.
+ */
+class InvertedIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final int NAME_BOOST = 3; // A name token weighs as much as three description tokens
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<UUID, Integer> docIdsByProduct = new HashMap<>();
+    private UUID[] productIds = new UUID[INITIAL_CAPACITY]; // null marks a removed document
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    private int nextDocId;
+    private int removedDocs;
+    private long totalLength;
+
+    int size() {
+        return docIdsByProduct.size();
+    }
+
+    boolean contains(UUID productId) {
+        return docIdsByProduct.containsKey(productId);
+    }
+
+    void put(UUID productId, String name, String description) {
+        remove(productId);
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String token : TextAnalyzer.tokenize(name)) {
+            termFrequencies.merge(token, NAME_BOOST, Integer::sum);
+        }
+        for (String token : TextAnalyzer.tokenize(description)) {
+            termFrequencies.merge(token, 1, Integer::sum);
+        }
+
+        int docId = nextDocId++;
+        ensureCapacity(docId + 1);
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        productIds[docId] = productId;
+        docLengths[docId] = length;
+        totalLength += length;
+        docIdsByProduct.put(productId, docId);
+
+        termFrequencies.forEach((term, frequency) ->
+                postingsByTerm.computeIfAbsent(term, t -> new Postings()).add(docId, frequency));
+    }
+
+    void remove(UUID productId) {
+        Integer docId = docIdsByProduct.remove(productId);
+        if (docId == null) {
+            return;
+        }
+        productIds[docId] = null;
+        totalLength -= docLengths[docId];
+        removedDocs++;
+
+        if (removedDocs > INITIAL_CAPACITY && removedDocs > docIdsByProduct.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} product ids matching any of the query terms, best BM25 score first.
+     */
+    List<UUID> search(List<String> queryTerms, int limit) {
+        int liveDocs = docIdsByProduct.size();
+        if (liveDocs == 0 || queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        float averageLength = Math.max(1f, (float) totalLength / liveDocs);
+        float[] scores = new float[nextDocId];
+        int[] matchedDocs = new int[16];
+        int matchedCount = 0;
+
+        for (String term : queryTerms.stream().distinct().toList()) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings == null) {
+                continue;
+            }
+            int documentFrequency = Math.min(postings.size, liveDocs);
+            float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+            for (int i = 0; i < postings.size; i++) {
+                int docId = postings.docIds[i];
+                if (productIds[docId] == null) {
+                    continue;
+                }
+                int frequency = postings.frequencies[i];
+                float lengthNorm = K1 * (1 - B + B * docLengths[docId] / averageLength);
+                if (scores[docId] == 0f) {
+                    if (matchedCount == matchedDocs.length) {
+                        matchedDocs = Arrays.copyOf(matchedDocs, matchedCount * 2);
+                    }
+                    matchedDocs[matchedCount++] = docId;
+                }
+                scores[docId] += idf * frequency * (K1 + 1) / (frequency + lengthNorm);
+            }
+        }
+
+        // Min-heap holding the best `limit` documents seen so far
+        PriorityQueue<Integer> topDocs = new PriorityQueue<>(limit + 1,
+                (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(b, a));
+        for (int i = 0; i < matchedCount; i++) {
+            topDocs.offer(matchedDocs[i]);
+            if (topDocs.size() > limit) {
+                topDocs.poll();
+            }
+        }
+
+        UUID[] ranked = new UUID[topDocs.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = productIds[topDocs.poll()];
+        }
+        return List.of(ranked);
+    }
+
+    /**
+     * Renumbers the live documents densely and drops postings that point at removed ones. The renumbering is
+     * monotonic, so every postings list stays sorted.
+     */
+    void compact() {
+        int[] remap = new int[nextDocId];
+        UUID[] compactedProductIds = new UUID[Math.max(INITIAL_CAPACITY, docIdsByProduct.size())];
+        int[] compactedLengths = new int[compactedProductIds.length];
+        int liveCount = 0;
+
+        for (int docId = 0; docId < nextDocId; docId++) {
+            if (productIds[docId] == null) {
+                remap[docId] = -1;
+                continue;
+            }
+            remap[docId] = liveCount;
+            compactedProductIds[liveCount] = productIds[docId];
+            compactedLengths[liveCount] = docLengths[docId];
+            docIdsByProduct.put(productIds[docId], liveCount);
+            liveCount++;
+        }
+
+        Iterator<Postings> iterator = postingsByTerm.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            postings.remap(remap);
+            if (postings.size == 0) {
+                iterator.remove();
+            }
+        }
+
+        productIds = compactedProductIds;
+        docLengths = compactedLengths;
+        nextDocId = liveCount;
+        removedDocs = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newCapacity = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newCapacity);
+            docLengths = Arrays.copyOf(docLengths, newCapacity);
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] docIds = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int docId, int frequency) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docIds[size] = docId;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int newDocId = remap[docIds[i]];
+                if (newDocId >= 0) {
+                    docIds[kept] = newDocId;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.commerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Radix trie from normalized keys to weighted completions.
+ * <p>
+ * Every node whose subtree holds more than {@link #TOP_K} completions caches the best {@link #TOP_K} of them, so a
+ * lookup is a single walk down the prefix. Smaller subtrees are enumerated on demand instead, which keeps the
+ * cached lists to the few nodes near the root that actually need them. Inserts and removals refresh the caches
+ * bottom-up along the touched path only.
+ * <p>
+ * Not thread-safe, {@link ProductSuggestionIndex} serializes writers against readers.
+ */
+class PrefixTrie {
+
+    static final int TOP_K = 10;
+
+    record Completion(UUID productId, String name, long weight) {
+    }
+
+    private static final Comparator<Completion> BY_RANK = Comparator.comparingLong(Completion::weight).reversed()
+            .thenComparing(Completion::name)
+            .thenComparing(Completion::productId);
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+    private final Node root = new Node("");
+
+    int size() {
+        return root.size;
+    }
+
+    void insert(String key, Completion completion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int offset = 0;
+
+        while (true) {
+            path.add(node);
+            if (offset == key.length()) {
+                node.terminals = append(node.terminals, completion);
+                break;
+            }
+
+            int index = childIndex(node, key.charAt(offset));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(offset));
+                leaf.terminals = new Completion[]{completion};
+                node.children = insertChild(node.children, -index - 1, leaf);
+                path.add(leaf);
+                break;
+            }
+
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, key, offset);
+            if (common < child.label.length()) {
+                // The key diverges inside the edge label, so split the edge at the divergence point
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new Node[]{child};
+                split.size = child.size;
+                split.top = child.top;
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            offset += common;
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node pathNode = path.get(i);
+            pathNode.size++;
+            refreshTop(pathNode);
+        }
+    }
+
+    boolean remove(String key, UUID productId) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int offset = 0;
+
+        while (true) {
+            path.add(node);
+            if (offset == key.length()) {
+                break;
+            }
+            int index = childIndex(node, key.charAt(offset));
+            if (index < 0 || !key.startsWith(node.children[index].label, offset)) {
+                return false;
+            }
+            node = node.children[index];
+            offset += node.label.length();
+        }
+
+        int terminalIndex = -1;
+        for (int i = 0; i < node.terminals.length; i++) {
+            if (node.terminals[i].productId().equals(productId)) {
+                terminalIndex = i;
+                break;
+            }
+        }
+        if (terminalIndex < 0) {
+            return false;
+        }
+        node.terminals = removeAt(node.terminals, terminalIndex);
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node pathNode = path.get(i);
+            pathNode.size--;
+            refreshTop(pathNode);
+            if (i > 0) {
+                prune(path.get(i - 1), pathNode);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns up to {@code limit} distinct products whose key starts with {@code prefix}, best weight first.
+     */
+    List<Completion> complete(String prefix, int limit) {
+        Node node = root;
+        int offset = 0;
+
+        while (offset < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(offset));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, prefix, offset);
+            if (offset + common == prefix.length()) {
+                node = child; // The prefix ends inside or at the end of this edge
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            offset += common;
+        }
+
+        List<Completion> candidates;
+        if (node.top != null) {
+            candidates = Arrays.asList(node.top);
+        } else {
+            candidates = new ArrayList<>();
+            collect(node, candidates);
+            candidates.sort(BY_RANK);
+        }
+        return distinctProducts(candidates, Math.min(limit, TOP_K));
+    }
+
+    private void refreshTop(Node node) {
+        if (node.size <= TOP_K) {
+            node.top = null;
+            return;
+        }
+        List<Completion> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            if (child.top != null) {
+                candidates.addAll(Arrays.asList(child.top));
+            } else {
+                collect(child, candidates);
+            }
+        }
+        candidates.sort(BY_RANK);
+        node.top = distinctProducts(candidates, TOP_K).toArray(NO_COMPLETIONS);
+    }
+
+    // Drops a child left without completions and folds a pass-through child into its only grandchild
+    private void prune(Node parent, Node child) {
+        int index = childIndex(parent, child.label.charAt(0));
+        if (child.size == 0) {
+            parent.children = removeAt(parent.children, index);
+        } else if (child.terminals.length == 0 && child.children.length == 1) {
+            Node grandchild = child.children[0];
+            grandchild.label = child.label + grandchild.label;
+            parent.children[index] = grandchild;
+        }
+    }
+
+    private static void collect(Node node, List<Completion> out) {
+        out.addAll(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            collect(child, out);
+        }
+    }
+
+    private static List<Completion> distinctProducts(List<Completion> ranked, int limit) {
+        List<Completion> result = new ArrayList<>(limit);
+        Set<UUID> seen = new HashSet<>();
+        for (Completion completion : ranked) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (seen.add(completion.productId())) {
+                result.add(completion);
+            }
+        }
+        return result;
+    }
+
+    // Children are kept sorted by the first character of their label, which is unique among siblings
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = node.children[mid].label.charAt(0);
+            if (midChar < first) {
+                low = mid + 1;
+            } else if (midChar > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static Node[] insertChild(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static <T> T[] append(T[] array, T element) {
+        T[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = element;
+        return result;
+    }
+
+    private static <T> T[] removeAt(T[] array, int index) {
+        T[] result = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private static final class Node {
+
+        private String label;                              // Edge label from the parent, empty for the root
+        private Node[] children = NO_CHILDREN;
+        private Completion[] terminals = NO_COMPLETIONS;   // Completions whose key ends exactly here
+        private Completion[] top;                          // Best completions of the subtree, only when size > TOP_K
+        private int size;                                  // Completions in the subtree
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.commerce.search;
+
+import com.example.commerce.model.Product;
+import com.example.commerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Walks the whole products table in keyset order, one bounded batch at a time, for the in-memory indexes to
+ * build themselves from. Each batch runs in its own short persistence context, so memory stays flat.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogScanner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+
+    public void forEachBatch(Consumer<List<Product>> consumer) {
+        List<Product> batch = productRepository.findFirstPage(Limit.of(BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            consumer.accept(batch);
+            Product last = batch.get(batch.size() - 1);
+            batch = productRepository.findPageAfter(last.getCreatedAt(), last.getProductId(), Limit.of(BATCH_SIZE));
+        }
+    }
+}
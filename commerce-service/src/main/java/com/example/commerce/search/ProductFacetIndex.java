@@ -0,0 +1,326 @@
+package com.example.commerce.search;
+
+import com.example.commerce.dto.PriceBucketCountDTO;
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductDeletedEvent;
+import com.example.commerce.event.ProductStockChangedEvent;
+import com.example.commerce.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Category, price band and stock predicates over compressed bitmaps, behind GET /api/products/filter.
+ * <p>
+ * Every product owns a dense int document id and sits in one bitmap per facet value: its category, its price
+ * bucket and, while it has stock, the in-stock set. A filter is an AND of those bitmaps and each facet count is
+ * a single {@code andCardinality}, so neither depends on SQL or on materializing the matching products.
+ * Facet counts are disjunctive: a facet is counted against every filter except its own, so picking one
+ * category still shows how many products the other categories would add.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private final ProductCatalogScanner catalogScanner;
+    private final long[] bucketUpperBoundsInCents;
+
+    private final Map<UUID, Integer> docIdsByProduct = new HashMap<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private UUID[] productIds = new UUID[INITIAL_CAPACITY];
+    private UUID[] categoryIds = new UUID[INITIAL_CAPACITY];
+    private long[] pricesInCents = new long[INITIAL_CAPACITY];
+    private int nextDocId;
+
+    private final RoaringBitmap allDocs = new RoaringBitmap();
+    private final RoaringBitmap inStockDocs = new RoaringBitmap();
+    private final Map<UUID, RoaringBitmap> docsByCategory = new HashMap<>();
+    private final RoaringBitmap[] docsByPriceBucket;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<UUID> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    public ProductFacetIndex(ProductCatalogScanner catalogScanner,
+                             @Value("${commerce.facets.price-bucket-bounds:25,50,100,250,500,1000}") List<BigDecimal> priceBucketBounds) {
+        this.catalogScanner = catalogScanner;
+        this.bucketUpperBoundsInCents = priceBucketBounds.stream().mapToLong(ProductFacetIndex::toCents).sorted().toArray();
+        this.docsByPriceBucket = new RoaringBitmap[bucketUpperBoundsInCents.length + 1];
+        for (int i = 0; i < docsByPriceBucket.length; i++) {
+            docsByPriceBucket[i] = new RoaringBitmap();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Building product facet index");
+        loading = true;
+        try {
+            catalogScanner.forEachBatch(this::indexLoadedBatch);
+        } finally {
+            loading = false;
+            deletedWhileLoading.clear();
+        }
+        log.info("Product facet index built with {} products", allDocs.getCardinality());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.product();
+        lock.writeLock().lock();
+        try {
+            put(product.getProductId(), product.getCategoryId(), product.getPrice(), product.getStock());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reservations only move stock, so only the in-stock set can change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByProduct.get(event.productId());
+            if (docId == null) {
+                return;
+            }
+            if (event.stock() > 0) {
+                inStockDocs.add(docId);
+            } else {
+                inStockDocs.remove(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        if (loading) {
+            deletedWhileLoading.add(event.productId());
+        }
+        lock.writeLock().lock();
+        try {
+            remove(event.productId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluates the filter and returns the total match count, the requested slice of matching product ids in
+     * document order, and the category and price bucket counts.
+     */
+    public FacetResult filter(ProductFilter filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryMask = categoryMask(filter.categoryIds());
+            RoaringBitmap priceMask = priceMask(filter.minPrice(), filter.maxPrice());
+            RoaringBitmap stockMask = filter.inStockOnly() ? inStockDocs : allDocs;
+
+            RoaringBitmap withoutCategory = RoaringBitmap.and(priceMask, stockMask);
+            RoaringBitmap withoutPrice = RoaringBitmap.and(categoryMask, stockMask);
+            RoaringBitmap matches = RoaringBitmap.and(withoutCategory, categoryMask);
+
+            Map<UUID, Long> categoryCounts = new HashMap<>();
+            docsByCategory.forEach((categoryId, docs) -> {
+                long count = RoaringBitmap.andCardinality(docs, withoutCategory);
+                if (count > 0) {
+                    categoryCounts.put(categoryId, count);
+                }
+            });
+
+            List<PriceBucketCountDTO> priceBuckets = new ArrayList<>(docsByPriceBucket.length);
+            for (int bucket = 0; bucket < docsByPriceBucket.length; bucket++) {
+                priceBuckets.add(new PriceBucketCountDTO(
+                        fromCents(bucketLowerBound(bucket)),
+                        bucket < bucketUpperBoundsInCents.length ? fromCents(bucketUpperBoundsInCents[bucket]) : null,
+                        RoaringBitmap.andCardinality(docsByPriceBucket[bucket], withoutPrice)
+                ));
+            }
+
+            List<UUID> page = new ArrayList<>(limit);
+            long totalCount = matches.getLongCardinality();
+            if (offset < totalCount) {
+                PeekableIntIterator iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded(matches.select(offset));
+                while (iterator.hasNext() && page.size() < limit) {
+                    page.add(productIds[iterator.next()]);
+                }
+            }
+
+            return new FacetResult(totalCount, page, categoryCounts, priceBuckets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexLoadedBatch(List<Product> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : batch) {
+                if (!docIdsByProduct.containsKey(product.getProductId()) && !deletedWhileLoading.contains(product.getProductId())) {
+                    put(product.getProductId(), product.getCategory().getCategoryId(), product.getPrice(), product.availableStock());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(UUID productId, UUID categoryId, BigDecimal price, int stock) {
+        Integer existingDocId = docIdsByProduct.get(productId);
+        int docId;
+        if (existingDocId != null) {
+            docId = existingDocId;
+            clearFacets(docId);
+        } else {
+            docId = allocateDocId();
+            docIdsByProduct.put(productId, docId);
+            productIds[docId] = productId;
+            allDocs.add(docId);
+        }
+
+        categoryIds[docId] = categoryId;
+        pricesInCents[docId] = toCents(price);
+        docsByCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(docId);
+        docsByPriceBucket[bucketOf(pricesInCents[docId])].add(docId);
+        if (stock > 0) {
+            inStockDocs.add(docId);
+        }
+    }
+
+    private void remove(UUID productId) {
+        Integer docId = docIdsByProduct.remove(productId);
+        if (docId == null) {
+            return;
+        }
+        clearFacets(docId);
+        allDocs.remove(docId);
+        productIds[docId] = null;
+        freeDocIds.push(docId);
+    }
+
+    private void clearFacets(int docId) {
+        RoaringBitmap categoryDocs = docsByCategory.get(categoryIds[docId]);
+        if (categoryDocs != null) {
+            categoryDocs.remove(docId);
+            if (categoryDocs.isEmpty()) {
+                docsByCategory.remove(categoryIds[docId]);
+            }
+        }
+        docsByPriceBucket[bucketOf(pricesInCents[docId])].remove(docId);
+        inStockDocs.remove(docId);
+        categoryIds[docId] = null;
+    }
+
+    private int allocateDocId() {
+        if (!freeDocIds.isEmpty()) {
+            return freeDocIds.pop();
+        }
+        int docId = nextDocId++;
+        if (docId == productIds.length) {
+            int newCapacity = productIds.length * 2;
+            productIds = Arrays.copyOf(productIds, newCapacity);
+            categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+            pricesInCents = Arrays.copyOf(pricesInCents, newCapacity);
+        }
+        return docId;
+    }
+
+    private RoaringBitmap categoryMask(Set<UUID> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return allDocs;
+        }
+        RoaringBitmap mask = new RoaringBitmap();
+        for (UUID categoryId : categoryIds) {
+            RoaringBitmap docs = docsByCategory.get(categoryId);
+            if (docs != null) {
+                mask.or(docs);
+            }
+        }
+        return mask;
+    }
+
+    // Buckets inside the range are taken whole, only the (at most two) boundary buckets check each price
+    private RoaringBitmap priceMask(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return allDocs;
+        }
+        long min = minPrice != null ? boundToCents(minPrice) : Long.MIN_VALUE;
+        long max = maxPrice != null ? boundToCents(maxPrice) : Long.MAX_VALUE;
+
+        RoaringBitmap mask = new RoaringBitmap();
+        for (int bucket = 0; bucket < docsByPriceBucket.length; bucket++) {
+            long lower = bucketLowerBound(bucket);
+            long upperInclusive = bucket < bucketUpperBoundsInCents.length ? bucketUpperBoundsInCents[bucket] - 1 : Long.MAX_VALUE;
+            if (upperInclusive < min || lower > max) {
+                continue;
+            }
+            if (lower >= min && upperInclusive <= max) {
+                mask.or(docsByPriceBucket[bucket]);
+            } else {
+                docsByPriceBucket[bucket].forEach((int docId) -> {
+                    if (pricesInCents[docId] >= min && pricesInCents[docId] <= max) {
+                        mask.add(docId);
+                    }
+                });
+            }
+        }
+        return mask;
+    }
+
+    private int bucketOf(long priceInCents) {
+        int bucket = Arrays.binarySearch(bucketUpperBoundsInCents, priceInCents);
+        // An exact hit on an upper bound belongs to the next bucket, as upper bounds are exclusive
+        return bucket >= 0 ? bucket + 1 : -bucket - 1;
+    }
+
+    private long bucketLowerBound(int bucket) {
+        return bucket == 0 ? 0 : bucketUpperBoundsInCents[bucket - 1];
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Filter bounds come from the client; past the range of cents they match everything or nothing anyway
+    private static long boundToCents(BigDecimal bound) {
+        if (bound.compareTo(MAX_PRICE) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (bound.compareTo(MIN_PRICE) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return toCents(bound);
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
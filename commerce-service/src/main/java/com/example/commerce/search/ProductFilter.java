@@ -0,0 +1,11 @@
+package com.example.commerce.search;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Predicates for {@link ProductFacetIndex#filter}. An empty category set and null price bounds match everything.
+ */
+public record ProductFilter(Set<UUID> categoryIds, BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly) {
+}
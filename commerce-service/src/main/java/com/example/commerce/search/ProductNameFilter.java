@@ -0,0 +1,105 @@
+package com.example.commerce.search;
+
+import com.example.commerce.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bloom filter of every product name in the catalog, so that the duplicate name check of the product write paths
+ * can tell a definitely new name apart without a query. Only a "maybe present" answer needs the
+ * existsByNameIgnoreCase lookup, which the functional index on LOWER(name) keeps cheap.
+ * <p>
+ * Names are added by {@link ProductNameListener} whenever a product is persisted or updated through JPA, and the
+ * catalog is scanned once the application is ready. Names of deleted, renamed or rolled back products stay in the
+ * filter, which only costs a query. Until the scan finished every name is reported as maybe present.
+ * <p>
+ * Keys use {@link TextAnalyzer#normalize}, which folds at least as much as LOWER(TRIM(name)) does, so two names the
+ * database considers equal always share a key.
+ */
+@Slf4j
+@Component
+public class ProductNameFilter {
+
+    private final ProductCatalogScanner catalogScanner;
+    private final int expectedInsertions;
+
+    private final BloomFilter filter;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+    private boolean saturationLogged;
+
+    public ProductNameFilter(ProductCatalogScanner catalogScanner,
+                             @Value("${commerce.product-names.expected-insertions:1000000}") int expectedInsertions,
+                             @Value("${commerce.product-names.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.catalogScanner = catalogScanner;
+        this.expectedInsertions = expectedInsertions;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Building product name filter");
+        catalogScanner.forEachBatch(this::addLoadedBatch);
+        loaded = true;
+        log.info("Product name filter built with {} names ({} bits, {} hash functions)",
+                insertions(), filter.bitCount(), filter.hashCount());
+    }
+
+    public void add(String name) {
+        lock.writeLock().lock();
+        try {
+            put(name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // False means no product has this name, true means one might and the database has to be asked
+    public boolean mightContain(String name) {
+        if (!loaded) {
+            return true;
+        }
+        String key = TextAnalyzer.normalize(name);
+        lock.readLock().lock();
+        try {
+            return filter.mightContain(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long insertions() {
+        lock.readLock().lock();
+        try {
+            return filter.insertions();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLoadedBatch(List<Product> batch) {
+        lock.writeLock().lock();
+        try {
+            batch.forEach(product -> put(product.getName()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(String name) {
+        filter.put(TextAnalyzer.normalize(name));
+        // Still correct past its capacity, but more and more new names pay for the query
+        if (filter.insertions() > expectedInsertions && !saturationLogged) {
+            saturationLogged = true;
+            log.warn("Product name filter holds more than {} names, false positive rate is now {}; raise commerce.product-names.expected-insertions",
+                    expectedInsertions, filter.expectedFalsePositiveRate());
+        }
+    }
+}
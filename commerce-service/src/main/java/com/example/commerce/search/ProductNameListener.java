@@ -0,0 +1,29 @@
+package com.example.commerce.search;
+
+import com.example.commerce.model.Product;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener of {@link Product} that feeds every written name into the {@link ProductNameFilter}, whichever
+ * code path saved it. Names are added before the row is written, so a concurrent check can only see a false positive.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container. The filter is looked up on use, since the entity manager
+ * factory creating this listener is itself a dependency of the filter.
+ */
+public class ProductNameListener {
+
+    private final ObjectProvider<ProductNameFilter> productNameFilter;
+
+    public ProductNameListener(ObjectProvider<ProductNameFilter> productNameFilter) {
+        this.productNameFilter = productNameFilter;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void onWrite(Product product) {
+        // Absent in slices without the search components, e.g. repository tests
+        productNameFilter.ifAvailable(filter -> filter.add(product.getName()));
+    }
+}
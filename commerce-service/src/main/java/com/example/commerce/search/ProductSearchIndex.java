@@ -0,0 +1,111 @@
+package com.example.commerce.search;
+
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductDeletedEvent;
+import com.example.commerce.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index behind GET /api/products/search. It is loaded from the products table once the application is
+ * ready and kept current from the product change events, so queries never touch the database.
+ * <p>
+ * Changes are applied once their transaction has committed, so a rolled-back write never reaches the index. Hits
+ * are still resolved against the database by the caller, which drops products deleted in the meantime.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private final ProductCatalogScanner catalogScanner;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Deletes seen while the initial load is still paging, so it does not resurrect them from an older batch
+    private final Set<UUID> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Building product search index");
+        loading = true;
+        try {
+            catalogScanner.forEachBatch(this::indexLoadedBatch);
+        } finally {
+            loading = false;
+            deletedWhileLoading.clear();
+        }
+        log.info("Product search index built with {} products", size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.product();
+        lock.writeLock().lock();
+        try {
+            index.put(product.getProductId(), product.getName(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        if (loading) {
+            deletedWhileLoading.add(event.productId());
+        }
+        lock.writeLock().lock();
+        try {
+            index.remove(event.productId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<UUID> search(String query, int limit) {
+        List<String> terms = TextAnalyzer.tokenize(query);
+        lock.readLock().lock();
+        try {
+            return index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Products already indexed from a change event are newer than the batch that was just read, so they are kept
+    private void indexLoadedBatch(List<Product> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : batch) {
+                if (!index.contains(product.getProductId()) && !deletedWhileLoading.contains(product.getProductId())) {
+                    index.put(product.getProductId(), product.getName(), product.getDescription());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.commerce.search;
+
+import com.example.commerce.dto.ProductSuggestionDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductDeletedEvent;
+import com.example.commerce.model.Product;
+import com.example.commerce.repository.OrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Type-ahead suggestions behind GET /api/products/suggest. Product names are normalized and inserted into a
+ * {@link PrefixTrie} once for the full name and once for each of the following few words, so "head" completes
+ * both "Headphones" and "Studio Headphones". Completions are ranked by units sold, taken from the order items
+ * when the index is built and refreshed periodically; only products whose units changed are re-inserted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestionIndex {
+
+    static final int MAX_KEY_LENGTH = 64;
+    private static final int MAX_WORD_KEYS = 4;
+
+    private final ProductCatalogScanner catalogScanner;
+    private final OrderItemRepository orderItemRepository;
+
+    private final PrefixTrie trie = new PrefixTrie();
+    private final Map<UUID, List<String>> keysByProduct = new HashMap<>();
+    private final Map<UUID, String> namesByProduct = new HashMap<>();
+    private final Map<UUID, Long> unitsSoldByProduct = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Set<UUID> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Building product suggestion index");
+        loading = true;
+        try {
+            orderItemRepository.sumQuantityByProduct()
+                    .forEach(sales -> unitsSoldByProduct.put(sales.getProductId(), sales.getUnitsSold()));
+            catalogScanner.forEachBatch(this::indexLoadedBatch);
+        } finally {
+            loading = false;
+            deletedWhileLoading.clear();
+        }
+        log.info("Product suggestion index built with {} products", keysByProduct.size());
+    }
+
+    // Units sold change far slower than keystrokes arrive, so re-reading the sums now and then keeps the ranking current
+    @Scheduled(fixedDelayString = "${commerce.suggestions.popularity-refresh-interval:PT10M}",
+            initialDelayString = "${commerce.suggestions.popularity-refresh-interval:PT10M}")
+    public void refreshPopularity() {
+        Map<UUID, Long> unitsSold = orderItemRepository.sumQuantityByProduct().stream()
+                .collect(Collectors.toMap(OrderItemRepository.ProductSales::getProductId, OrderItemRepository.ProductSales::getUnitsSold));
+
+        lock.writeLock().lock();
+        try {
+            List<UUID> changed = new ArrayList<>();
+            namesByProduct.forEach((productId, name) -> {
+                long units = unitsSold.getOrDefault(productId, 0L);
+                if (unitsSoldByProduct.getOrDefault(productId, 0L) != units) {
+                    unitsSoldByProduct.put(productId, units);
+                    changed.add(productId);
+                }
+            });
+            changed.forEach(productId -> put(productId, namesByProduct.get(productId)));
+            log.debug("Refreshed popularity of {} suggested products", changed.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            put(event.product().getProductId(), event.product().getName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        if (loading) {
+            deletedWhileLoading.add(event.productId());
+        }
+        lock.writeLock().lock();
+        try {
+            remove(event.productId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalizedPrefix = truncate(TextAnalyzer.normalize(prefix));
+        if (normalizedPrefix.isEmpty()) {
+            return List.of();
+        }
+
+        List<PrefixTrie.Completion> completions;
+        lock.readLock().lock();
+        try {
+            completions = trie.complete(normalizedPrefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return completions.stream()
+                .map(completion -> new ProductSuggestionDTO(completion.productId(), completion.name()))
+                .collect(Collectors.toList());
+    }
+
+    private void indexLoadedBatch(List<Product> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : batch) {
+                if (!keysByProduct.containsKey(product.getProductId()) && !deletedWhileLoading.contains(product.getProductId())) {
+                    put(product.getProductId(), product.getName());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(UUID productId, String name) {
+        remove(productId);
+
+        List<String> keys = keysFor(name);
+        PrefixTrie.Completion completion = new PrefixTrie.Completion(productId, name.trim(), unitsSoldByProduct.getOrDefault(productId, 0L));
+        keys.forEach(key -> trie.insert(key, completion));
+        keysByProduct.put(productId, keys);
+        namesByProduct.put(productId, name);
+    }
+
+    private void remove(UUID productId) {
+        List<String> keys = keysByProduct.remove(productId);
+        namesByProduct.remove(productId);
+        if (keys != null) {
+            keys.forEach(key -> trie.remove(key, productId));
+        }
+    }
+
+    // "studio monitor headphones" -> ["studio monitor headphones", "monitor headphones", "headphones"]
+    static List<String> keysFor(String name) {
+        String[] words = TextAnalyzer.normalize(name).split(" ");
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < Math.min(words.length, MAX_WORD_KEYS); i++) {
+            String key = truncate(String.join(" ", List.of(words).subList(i, words.length)));
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
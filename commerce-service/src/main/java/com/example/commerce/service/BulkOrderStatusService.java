@@ -0,0 +1,57 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.BulkOrderStatusResponseDTO;
+import com.example.commerce.dto.OrderStatusResultDTO;
+import com.example.commerce.dto.OrderStatusResultDTO.Outcome;
+import com.example.commerce.model.enums.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves many orders to a status at once, e.g. everything fulfilment shipped during a shift. The orders are taken in
+ * chunks sorted by id, one transaction each, so concurrent bulk updates lock their rows in the same sequence and a
+ * failed chunk leaves the others applied; its orders are reported as FAILED.
+ */
+@Slf4j
+@Service
+public class BulkOrderStatusService {
+
+    private final OrderService orderService;
+    private final int chunkSize;
+
+    public BulkOrderStatusService(OrderService orderService,
+                                  @Value("${commerce.orders.status-chunk-size:500}") int chunkSize) {
+        this.orderService = orderService;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkOrderStatusResponseDTO updateOrderStatuses(List<UUID> orderIds, OrderStatus newStatus) {
+        log.info("Updating the status of {} orders to {}", orderIds.size(), newStatus);
+
+        Set<UUID> requested = new LinkedHashSet<>(orderIds);
+        List<UUID> sorted = requested.stream().sorted().toList();
+        Map<UUID, OrderStatusResultDTO> results = new HashMap<>();
+        for (int from = 0; from < sorted.size(); from += chunkSize) {
+            List<UUID> chunk = sorted.subList(from, Math.min(from + chunkSize, sorted.size()));
+            try {
+                orderService.transitionOrders(chunk, newStatus).forEach(result -> results.put(result.getOrderId(), result));
+            } catch (RuntimeException e) {
+                log.error("Moving a chunk of {} orders to {} failed", chunk.size(), newStatus, e);
+                chunk.forEach(orderId -> results.put(orderId, new OrderStatusResultDTO(orderId, Outcome.FAILED, null)));
+            }
+        }
+
+        List<OrderStatusResultDTO> inRequestOrder = requested.stream().map(results::get).toList();
+        int updated = (int) inRequestOrder.stream().filter(result -> result.getOutcome() == Outcome.UPDATED).count();
+        log.info("Moved {} of {} orders to {}", updated, requested.size(), newStatus);
+        return new BulkOrderStatusResponseDTO(newStatus.toString(), updated, inRequestOrder);
+    }
+}
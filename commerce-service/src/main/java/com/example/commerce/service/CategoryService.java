@@ -2,10 +2,14 @@ package com.example.commerce.service;
 
 import com.example.commerce.dto.CategoryRequestDTO;
 import com.example.commerce.dto.CategoryResponseDTO;
+import com.example.commerce.event.LowStockThresholdChangedEvent;
 import com.example.commerce.model.Category;
 import com.example.commerce.repository.CategoryRepository;
+import com.example.commerce.repository.CollectionVersion;
+import com.example.commerce.repository.EntityVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -20,6 +24,7 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<CategoryResponseDTO> getAllCategories() {
         log.info("Retrieving all categories");
@@ -43,6 +48,19 @@ public class CategoryService {
         return mapToResponseDTO(category);
     }
 
+    // Backs conditional GETs, so an unchanged category is answered without loading or mapping it
+    public EntityVersion getCategoryVersion(UUID categoryId) {
+        return categoryRepository.findVersionById(categoryId)
+                .orElseThrow(() -> {
+                    log.error("Category with ID: {} not found", categoryId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+                });
+    }
+
+    public CollectionVersion getCategoriesVersion() {
+        return categoryRepository.findCollectionVersion();
+    }
+
     public CategoryResponseDTO createCategory(CategoryRequestDTO requestDTO) {
         log.info("Creating new category with name: {}", requestDTO.getName());
 
@@ -76,6 +94,22 @@ public class CategoryService {
         return mapToResponseDTO(updatedCategory);
     }
 
+    // Applies to the products of the category without a threshold of their own, null falls back to the default
+    public void setLowStockThreshold(UUID categoryId, Integer threshold) {
+        log.info("Setting low-stock threshold of category ID: {} to {}", categoryId, threshold);
+        InventoryService.requireValidThreshold(threshold);
+
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> {
+                    log.error("Category with ID: {} not found", categoryId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+                });
+
+        category.setLowStockThreshold(threshold);
+        categoryRepository.save(category);
+        eventPublisher.publishEvent(new LowStockThresholdChangedEvent(null, categoryId, threshold));
+    }
+
     public void deleteCategory(UUID categoryId) {
         log.info("Deleting category with ID: {}", categoryId);
 
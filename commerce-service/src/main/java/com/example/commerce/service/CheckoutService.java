@@ -0,0 +1,143 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.CheckoutItemDTO;
+import com.example.commerce.dto.CheckoutRequestDTO;
+import com.example.commerce.dto.CheckoutResponseDTO;
+import com.example.commerce.dto.OrderItemResponseDTO;
+import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.model.Money;
+import com.example.commerce.model.Order;
+import com.example.commerce.model.OrderItem;
+import com.example.commerce.model.Product;
+import com.example.commerce.model.User;
+import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.repository.OrderItemRepository;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.repository.UserRepository;
+import com.example.commerce.reservation.ReservationTimer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates a pending order together with all of its items in one call and one transaction, instead of one request
+ * for the order and one per item. The products are loaded in a single IN query, prices and the total are taken from
+ * them rather than from the client, and the item rows go out as one JDBC batch. If any line cannot be reserved, the
+ * whole checkout rolls back and no stock stays held.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckoutService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final InventoryService inventoryService;
+    private final ReservationTimer reservationTimer;
+
+    @Transactional
+    public CheckoutResponseDTO checkout(CheckoutRequestDTO requestDTO) {
+        log.info("Checking out {} items for user ID: {}", requestDTO.getItems().size(), requestDTO.getUserId());
+
+        User user = userRepository.findById(requestDTO.getUserId())
+                .orElseThrow(() -> {
+                    log.error("User with user ID {} does not exist", requestDTO.getUserId());
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+                });
+
+        // Repeated products become one line; product order is also the order in which their rows get locked, so two
+        // checkouts of the same products cannot deadlock
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (CheckoutItemDTO item : requestDTO.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<UUID, Product> products = productRepository.findAllByProductIdIn(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        for (UUID productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                log.error("Product with ID: {} does not exist", productId);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+            }
+        }
+
+        Money totalPrice = Money.ZERO;
+        for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+            totalPrice = totalPrice.plus(Money.of(products.get(line.getKey()).getPrice()).times(line.getValue()));
+        }
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStreet(requestDTO.getStreet());
+        order.setCity(requestDTO.getCity());
+        order.setState(requestDTO.getState());
+        order.setCountry(requestDTO.getCountry());
+        order.setPostalCode(requestDTO.getPostalCode());
+        order.setTotalPrice(totalPrice.toBigDecimal());
+        order.setStatus(OrderStatus.PENDING);
+        order.setReservationExpiresAt(reservationTimer.nextDeadline());
+        Order savedOrder = orderRepository.save(order);
+
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            inventoryService.reserve(product.getProductId(), line.getValue(), savedOrder.getOrderId());
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(savedOrder);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(line.getValue());
+            orderItem.setPrice(product.getPrice());
+            orderItems.add(orderItem);
+        }
+        List<OrderItem> savedItems = orderItemRepository.saveAll(orderItems);
+
+        reservationTimer.schedule(savedOrder.getOrderId(), savedOrder.getReservationExpiresAt());
+        log.info("Checked out order ID: {} with {} items, total {}", savedOrder.getOrderId(), savedItems.size(), totalPrice.toBigDecimal());
+
+        return new CheckoutResponseDTO(mapToResponseDTO(savedOrder), savedItems.stream().map(this::mapToResponseDTO).toList());
+    }
+
+    private OrderResponseDTO mapToResponseDTO(Order order) {
+        return new OrderResponseDTO(
+                order.getOrderId(),
+                order.getUser().getUserId(),
+                order.getStreet(),
+                order.getCity(),
+                order.getState(),
+                order.getCountry(),
+                order.getPostalCode(),
+                order.getTotalPrice(),
+                order.getStatus().toString(),
+                order.getCreatedAt(),
+                order.getUpdatedAt()
+        );
+    }
+
+    private OrderItemResponseDTO mapToResponseDTO(OrderItem orderItem) {
+        return new OrderItemResponseDTO(
+                orderItem.getOrderItemId(),
+                orderItem.getOrder().getOrderId(),
+                orderItem.getProduct().getProductId(),
+                orderItem.getQuantity(),
+                orderItem.getPrice(),
+                orderItem.getProduct().getName(),
+                orderItem.getCreatedAt(),
+                orderItem.getUpdatedAt()
+        );
+    }
+}
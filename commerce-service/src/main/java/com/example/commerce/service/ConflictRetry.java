@@ -0,0 +1,39 @@
+package com.example.commerce.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a transactional read-modify-write again when its version check loses against a concurrent writer. Each attempt
+ * has to go through the service proxy so it gets a fresh transaction that reads the current row; inside an outer
+ * transaction the stale state would be read again, so the conflict is passed on instead.
+ */
+@Slf4j
+@Component
+public class ConflictRetry {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    public <T> T run(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("{} still conflicting after {} attempts", operation, attempt);
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, operation + " conflicted with a concurrent update, please retry");
+                }
+                log.warn("{} conflicted with a concurrent update, attempt {} of {}", operation, attempt, MAX_ATTEMPTS);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.InventoryLedgerEntryDTO;
+import com.example.commerce.model.InventoryLedgerEntry;
+import com.example.commerce.model.InventorySnapshot;
+import com.example.commerce.model.enums.InventoryMovement;
+import com.example.commerce.repository.InventoryLedgerRepository;
+import com.example.commerce.repository.InventorySnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only ledger of stock movements. The stock column stays the O(1) source for reads; the ledger makes every
+ * change to it auditable and lets the stock be derived independently: the latest snapshot of a product plus the
+ * deltas recorded after it. Snapshots are taken periodically, so a derivation never sums more than one interval.
+ * <p>
+ * Entries recorded inside a transaction are collected and inserted right before it commits, as one JDBC batch and
+ * only if the stock changes they describe commit too.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryLedgerService {
+
+    public static final int MAX_ENTRIES = 500;
+
+    // Snapshots stop this far in the past, so entries of transactions still committing are not skipped
+    private static final long SNAPSHOT_HORIZON_SECONDS = 60;
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final InventoryLedgerRepository ledgerRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+
+    public void record(UUID productId, InventoryMovement movement, int quantity, int delta, UUID orderId) {
+        InventoryLedgerEntry entry = new InventoryLedgerEntry(null, productId, movement, quantity, delta, orderId, null);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            ledgerRepository.save(entry);
+            return;
+        }
+        pendingEntries().add(entry);
+    }
+
+    public List<InventoryLedgerEntryDTO> getEntries(UUID productId, int limit) {
+        return ledgerRepository.findLatestByProductId(productId, Limit.of(Math.max(1, Math.min(limit, MAX_ENTRIES)))).stream()
+                .map(InventoryLedgerService::mapToDTO)
+                .toList();
+    }
+
+    // The stock as the ledger has it; only reads entries since the latest snapshot
+    @Transactional(readOnly = true)
+    public DerivedStock deriveStock(UUID productId) {
+        InventorySnapshot snapshot = snapshotRepository.findFirstByProductIdOrderByCoveredUntilDesc(productId).orElse(null);
+        LocalDateTime coveredUntil = snapshot != null ? snapshot.getCoveredUntil() : ORIGIN;
+        long stock = (snapshot != null ? snapshot.getStock() : 0) + ledgerRepository.sumDeltaAfter(productId, coveredUntil);
+        return new DerivedStock(Math.toIntExact(stock), snapshot != null ? coveredUntil : null);
+    }
+
+    @Scheduled(fixedDelayString = "${commerce.inventory.snapshot-interval:PT1H}", initialDelayString = "${commerce.inventory.snapshot-interval:PT1H}")
+    @Transactional
+    public void takeSnapshots() {
+        takeSnapshotsUpTo(LocalDateTime.now().minusSeconds(SNAPSHOT_HORIZON_SECONDS));
+    }
+
+    // Snapshots every product with ledger entries between its latest snapshot and the horizon
+    @Transactional
+    public int takeSnapshotsUpTo(LocalDateTime horizon) {
+        List<InventoryLedgerRepository.ProductDelta> deltas = ledgerRepository.sumDeltaSinceLatestSnapshot(horizon, ORIGIN);
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, InventorySnapshot> previous = snapshotRepository.findLatestByProductIdIn(
+                        deltas.stream().map(InventoryLedgerRepository.ProductDelta::getProductId).toList()).stream()
+                .collect(Collectors.toMap(InventorySnapshot::getProductId, Function.identity()));
+
+        List<InventorySnapshot> snapshots = new ArrayList<>(deltas.size());
+        for (InventoryLedgerRepository.ProductDelta delta : deltas) {
+            InventorySnapshot last = previous.get(delta.getProductId());
+            long stock = (last != null ? last.getStock() : 0) + delta.getDelta();
+            snapshots.add(new InventorySnapshot(null, delta.getProductId(), Math.toIntExact(stock), horizon, null));
+        }
+        snapshotRepository.saveAll(snapshots);
+        log.info("Took inventory snapshots of {} products up to {}", snapshots.size(), horizon);
+        return snapshots.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<InventoryLedgerEntry> pendingEntries() {
+        List<InventoryLedgerEntry> pending = (List<InventoryLedgerEntry>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<InventoryLedgerEntry> entries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    ledgerRepository.saveAll(entries);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(InventoryLedgerService.this);
+                }
+            });
+            pending = entries;
+        }
+        return pending;
+    }
+
+    private static InventoryLedgerEntryDTO mapToDTO(InventoryLedgerEntry entry) {
+        return new InventoryLedgerEntryDTO(
+                entry.getEntryId(),
+                entry.getProductId(),
+                entry.getMovement().toString(),
+                entry.getQuantity(),
+                entry.getDelta(),
+                entry.getOrderId(),
+                entry.getCreatedAt()
+        );
+    }
+
+    public record DerivedStock(int stock, LocalDateTime snapshotCoveredUntil) {
+    }
+}
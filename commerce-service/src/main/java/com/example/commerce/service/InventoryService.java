@@ -0,0 +1,319 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.InventoryAuditDTO;
+import com.example.commerce.dto.OrderItemResponseDTO;
+import com.example.commerce.event.LowStockThresholdChangedEvent;
+import com.example.commerce.event.ProductStockChangedEvent;
+import com.example.commerce.model.Product;
+import com.example.commerce.model.ProductStockBucket;
+import com.example.commerce.model.ProductStockBucketId;
+import com.example.commerce.model.enums.InventoryMovement;
+import com.example.commerce.repository.OrderItemRepository;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.repository.ProductStockBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Single entry point for stock movements of the order write paths. A reservation checks and decrements the stock in
+ * one conditional UPDATE, so two checkouts of the last unit cannot both succeed, and the row lock is only held until
+ * the surrounding transaction commits. Releases give reserved units back the same way.
+ * <p>
+ * Flash-sale products can be sharded: their stock is then spread over several rows of product_stock_buckets and each
+ * reservation takes a bucket no other reservation holds, so concurrent checkouts of one product no longer queue on a
+ * single row lock. Reported stock stays exact, it is the sum over the buckets.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    public static final int MAX_STOCK_BUCKETS = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductStockBucketRepository productStockBucketRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderRepository orderRepository;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Returns the stock left after the reservation; the order, if given, is recorded in the ledger
+    @Transactional
+    public int reserve(UUID productId, int quantity, UUID orderId) {
+        log.info("Reserving {} units of product ID: {}", quantity, productId);
+        requirePositive(quantity);
+
+        // Unsharded products, the common case, are done after this single statement
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            int buckets = productRepository.findStockBucketsById(productId)
+                    .orElseThrow(() -> {
+                        log.error("Product with ID: {} does not exist", productId);
+                        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+                    });
+            if (buckets == 0 || !reserveFromBuckets(productId, quantity)) {
+                log.error("Insufficient stock for product ID: {}. Requested: {}", productId, quantity);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock for the product");
+            }
+        }
+        inventoryLedgerService.record(productId, InventoryMovement.RESERVATION, quantity, -quantity, orderId);
+        return stockChanged(productId);
+    }
+
+    // Returns the stock after the release, or -1 if the product no longer exists
+    @Transactional
+    public int release(UUID productId, int quantity, UUID orderId) {
+        log.info("Releasing {} units of product ID: {}", quantity, productId);
+        requirePositive(quantity);
+
+        int stock = releaseStock(productId, quantity);
+        if (stock >= 0) {
+            inventoryLedgerService.record(productId, InventoryMovement.RELEASE, quantity, quantity, orderId);
+        }
+        return stock;
+    }
+
+    private int releaseStock(UUID productId, int quantity) {
+        if (productRepository.incrementStock(productId, quantity) == 0) {
+            Integer buckets = productRepository.findStockBucketsById(productId).orElse(null);
+            if (buckets == null) {
+                log.warn("Product with ID: {} no longer exists, {} released units are dropped", productId, quantity);
+                return -1;
+            }
+            if (buckets == 0) {
+                productRepository.incrementStock(productId, quantity); // Unsharded in the meantime
+            } else {
+                productStockBucketRepository.incrementStock(productId, ThreadLocalRandom.current().nextInt(buckets), quantity);
+            }
+        }
+        return stockChanged(productId);
+    }
+
+    @Transactional
+    public void releaseOrderItems(UUID orderId) {
+        log.info("Releasing stock reserved by order ID: {}", orderId);
+
+        // Product order, so that concurrent releases lock the product rows in the same sequence and cannot deadlock
+        orderItemRepository.findResponsesByOrderId(orderId).stream()
+                .sorted(Comparator.comparing(OrderItemResponseDTO::getProductId))
+                .forEach(item -> release(item.getProductId(), item.getQuantity(), orderId));
+    }
+
+    // The units were taken from stock on reservation already, the ledger only notes that they are sold now
+    @Transactional
+    public void recordSale(UUID orderId) {
+        for (OrderItemResponseDTO item : orderItemRepository.findResponsesByOrderId(orderId)) {
+            inventoryLedgerService.record(item.getProductId(), InventoryMovement.SALE, item.getQuantity(), 0, orderId);
+        }
+    }
+
+    // Cancels the given orders that are still pending and past their deadline and gives their stock back in one
+    // release per product. Orders are cancelled one by one, each UPDATE re-checking status and deadline
+    @Transactional
+    public ExpiredReservations expireOrders(Collection<UUID> orderIds, LocalDateTime now) {
+        List<UUID> expiredOrderIds = new ArrayList<>(orderIds.size());
+        for (UUID orderId : orderIds) {
+            if (orderRepository.cancelIfExpired(orderId, now) == 1) {
+                expiredOrderIds.add(orderId);
+            }
+        }
+        if (expiredOrderIds.isEmpty()) {
+            return new ExpiredReservations(0, 0);
+        }
+
+        int releasedUnits = releaseOrderItems(expiredOrderIds);
+        log.info("Expired {} pending orders, released {} units", expiredOrderIds.size(), releasedUnits);
+        return new ExpiredReservations(expiredOrderIds.size(), releasedUnits);
+    }
+
+    // Gives the stock of a batch of cancelled orders back in one release per product, returns the units released.
+    // Grouped by product in product order; the ledger still gets one entry per order and product
+    @Transactional
+    public int releaseOrderItems(Collection<UUID> orderIds) {
+        Map<UUID, List<OrderItemRepository.HeldQuantity>> heldByProduct = orderItemRepository.findHeldQuantities(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRepository.HeldQuantity::getProductId, TreeMap::new, Collectors.toList()));
+        int releasedUnits = 0;
+        for (Map.Entry<UUID, List<OrderItemRepository.HeldQuantity>> held : heldByProduct.entrySet()) {
+            int units = held.getValue().stream().mapToInt(OrderItemRepository.HeldQuantity::getQuantity).sum();
+            if (releaseStock(held.getKey(), units) >= 0) {
+                held.getValue().forEach(item -> inventoryLedgerService.record(
+                        item.getProductId(), InventoryMovement.RELEASE, item.getQuantity(), item.getQuantity(), item.getOrderId()));
+            }
+            releasedUnits += units;
+        }
+        return releasedUnits;
+    }
+
+    // recordSale for a batch of orders, with a single read of their items
+    @Transactional
+    public void recordSales(Collection<UUID> orderIds) {
+        for (OrderItemRepository.HeldQuantity item : orderItemRepository.findHeldQuantities(orderIds)) {
+            inventoryLedgerService.record(item.getProductId(), InventoryMovement.SALE, item.getQuantity(), 0, item.getOrderId());
+        }
+    }
+
+    // Spreads the current stock evenly over the given number of buckets, 0 moves it back into the stock column
+    @Transactional
+    public int shardStock(UUID productId, int buckets) {
+        log.info("Sharding stock of product ID: {} into {} buckets", productId, buckets);
+        if (buckets < 0 || buckets > MAX_STOCK_BUCKETS) {
+            throw new IllegalArgumentException("Stock buckets must be between 0 and " + MAX_STOCK_BUCKETS);
+        }
+
+        Product product = lockProduct(productId);
+        List<ProductStockBucket> currentBuckets = productStockBucketRepository.findAllForUpdate(productId);
+        int stock = product.getStock() + currentBuckets.stream().mapToInt(ProductStockBucket::getStock).sum();
+        return distribute(product, currentBuckets, buckets, stock);
+    }
+
+    // Replaces the stock of a product while keeping its sharding, used by product updates
+    @Transactional
+    public int replaceStock(UUID productId, int stock) {
+        log.info("Replacing stock of product ID: {} with {}", productId, stock);
+
+        Product product = lockProduct(productId);
+        List<ProductStockBucket> currentBuckets = productStockBucketRepository.findAllForUpdate(productId);
+        int previousStock = product.getStock() + currentBuckets.stream().mapToInt(ProductStockBucket::getStock).sum();
+        if (stock != previousStock) {
+            inventoryLedgerService.record(productId, InventoryMovement.ADJUSTMENT, Math.abs(stock - previousStock), stock - previousStock, null);
+        }
+        return distribute(product, currentBuckets, product.getStockBuckets(), stock);
+    }
+
+    // A null threshold falls back to the category's, see LowStockMonitor
+    @Transactional
+    public void setLowStockThreshold(UUID productId, Integer threshold) {
+        log.info("Setting low-stock threshold of product ID: {} to {}", productId, threshold);
+        requireValidThreshold(threshold);
+
+        if (productRepository.updateLowStockThreshold(productId, threshold) == 0) {
+            log.error("Product with ID: {} does not exist", productId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        eventPublisher.publishEvent(new LowStockThresholdChangedEvent(productId, null, threshold));
+    }
+
+    public InventoryAuditDTO getAudit(UUID productId) {
+        int stock = productRepository.findStockById(productId)
+                .orElseThrow(() -> {
+                    log.error("Product with ID: {} does not exist", productId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+                });
+        InventoryLedgerService.DerivedStock derived = inventoryLedgerService.deriveStock(productId);
+        return new InventoryAuditDTO(productId, stock, derived.stock(), derived.snapshotCoveredUntil());
+    }
+
+    // Resets the stock to what the ledger says, e.g. after it was changed by SQL that bypassed the ledger
+    @Transactional
+    public InventoryAuditDTO rebuildStock(UUID productId) {
+        log.info("Rebuilding stock of product ID: {} from the inventory ledger", productId);
+
+        Product product = lockProduct(productId);
+        InventoryLedgerService.DerivedStock derived = inventoryLedgerService.deriveStock(productId);
+        if (derived.stock() < 0) {
+            log.error("Ledger of product ID: {} adds up to negative stock {}", productId, derived.stock());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Inventory ledger adds up to negative stock");
+        }
+        distribute(product, productStockBucketRepository.findAllForUpdate(productId), product.getStockBuckets(), derived.stock());
+        return new InventoryAuditDTO(productId, derived.stock(), derived.stock(), derived.snapshotCoveredUntil());
+    }
+
+    // Product row first, then its buckets in bucket order: the same sequence reservations follow
+    private Product lockProduct(UUID productId) {
+        return productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> {
+                    log.error("Product with ID: {} does not exist", productId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+                });
+    }
+
+    private int distribute(Product product, List<ProductStockBucket> currentBuckets, int buckets, int stock) {
+        UUID productId = product.getProductId();
+        // Surplus rows of an earlier, wider sharding are emptied rather than deleted, see ProductStockBucket
+        for (int bucket = 0; bucket < Math.max(buckets, currentBuckets.size()); bucket++) {
+            int share = bucket < buckets ? stock / buckets + (bucket < stock % buckets ? 1 : 0) : 0;
+            if (bucket < currentBuckets.size()) {
+                currentBuckets.get(bucket).setStock(share);
+            } else {
+                productStockBucketRepository.save(new ProductStockBucket(new ProductStockBucketId(productId, bucket), share, null, null));
+            }
+        }
+        product.setStock(buckets == 0 ? stock : 0);
+        product.setStockBuckets(buckets);
+        productRepository.flush();
+
+        productCache.evictAfterCommit(productId);
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, stock));
+        return stock;
+    }
+
+    // Takes the quantity from the first bucket that holds it on its own and is not locked by another reservation; only
+    // if there is none are all buckets locked and drained together. The first step never waits. The second starts
+    // without any bucket lock held and takes the product row first, as lockProduct callers do, so these fallbacks run
+    // one at a time per product and only ever wait for single-bucket reservations, which wait for nothing
+    private boolean reserveFromBuckets(UUID productId, int quantity) {
+        Optional<ProductStockBucket> freeBucket = productStockBucketRepository.findFirstUnlockedWithStock(productId, quantity);
+        if (freeBucket.isPresent()) {
+            ProductStockBucket bucket = freeBucket.get();
+            bucket.setStock(bucket.getStock() - quantity);
+            productStockBucketRepository.flush();
+            return true;
+        }
+
+        lockProduct(productId);
+        List<ProductStockBucket> lockedBuckets = productStockBucketRepository.findAllForUpdate(productId);
+        if (lockedBuckets.stream().mapToInt(ProductStockBucket::getStock).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (ProductStockBucket bucket : lockedBuckets) {
+            int taken = Math.min(remaining, bucket.getStock());
+            bucket.setStock(bucket.getStock() - taken);
+            remaining -= taken;
+        }
+        productStockBucketRepository.flush();
+        return true;
+    }
+
+    // The UPDATE keeps the row locked until commit, so this reads exactly the stock the change left behind. For sharded
+    // products it is the committed total of the other buckets plus this change
+    private int stockChanged(UUID productId) {
+        int stock = productRepository.findStockById(productId).orElseThrow();
+        productCache.evictAfterCommit(productId);
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, stock));
+        return stock;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+    }
+
+    static void requireValidThreshold(Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("Low-stock threshold must not be negative");
+        }
+    }
+
+    public record ExpiredReservations(int orders, int units) {
+    }
+}
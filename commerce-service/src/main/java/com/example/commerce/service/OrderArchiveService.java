@@ -0,0 +1,171 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.OrderDetailDTO;
+import com.example.commerce.dto.OrderItemResponseDTO;
+import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.dto.PaymentResponseDTO;
+import com.example.commerce.model.ArchivedOrder;
+import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.repository.ArchivedOrderRepository;
+import com.example.commerce.repository.EntityVersion;
+import com.example.commerce.repository.OrderAllocationRepository;
+import com.example.commerce.repository.OrderItemRepository;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.OrderRepository.OrderDetailRow;
+import com.example.commerce.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage of final orders. Completed and cancelled orders older than the archive age are moved out of the
+ * partitioned orders and order_items tables into order_archive, see OrderRetentionService, and OrderService falls back
+ * to the archive for every order it does not find. An archived order keeps its columns, so history pages are read
+ * like live ones; its items and payment are stored as one gzip compressed JSON payload only the detail view unpacks.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderAllocationRepository orderAllocationRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration archiveAfter;
+
+    public OrderArchiveService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                               PaymentRepository paymentRepository, OrderAllocationRepository orderAllocationRepository,
+                               ArchivedOrderRepository archivedOrderRepository, ObjectMapper objectMapper,
+                               @Value("${commerce.orders.archive-after:365d}") Duration archiveAfter) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderAllocationRepository = orderAllocationRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.objectMapper = objectMapper;
+        this.archiveAfter = archiveAfter;
+    }
+
+    // One batch per transaction, returns the number of orders moved
+    @Transactional
+    public int archiveOrders(LocalDateTime cutoff, int batchSize) {
+        List<UUID> orderIds = orderRepository.lockArchivableIds(cutoff, Limit.of(batchSize));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, List<OrderDetailRow>> rowsByOrder = orderRepository.findDetailRowsByIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderDetailRow::getOrderId, LinkedHashMap::new, Collectors.toList()));
+        archivedOrderRepository.saveAll(rowsByOrder.values().stream().map(this::toArchivedOrder).toList());
+
+        orderItemRepository.deleteByOrderIds(orderIds);
+        paymentRepository.deleteByOrderIds(orderIds);
+        orderAllocationRepository.deleteByOrderIds(orderIds);
+        orderRepository.deleteArchived(orderIds, cutoff);
+        log.debug("Archived a batch of {} orders created before {}", orderIds.size(), cutoff);
+        return orderIds.size();
+    }
+
+    // Every archived order was created before this: OrderRetentionService only moves orders older than the archive age
+    public LocalDateTime horizon() {
+        return LocalDateTime.now().minus(archiveAfter);
+    }
+
+    public Optional<OrderResponseDTO> findResponse(UUID orderId) {
+        return archivedOrderRepository.findResponseById(orderId);
+    }
+
+    public Optional<EntityVersion> findVersion(UUID orderId) {
+        return archivedOrderRepository.findVersionById(orderId);
+    }
+
+    public Optional<OrderDetailDTO> findDetail(UUID orderId) {
+        return archivedOrderRepository.findById(orderId).map(archived -> {
+            Payload payload = decompress(archived.getPayload());
+            return new OrderDetailDTO(toResponseDTO(archived), payload.items(), payload.payment());
+        });
+    }
+
+    // The same keyset page as OrderService reads from orders, position null for the first page
+    public List<OrderResponseDTO> findPage(UUID userId, Optional<OrderStatus> status, KeysetCursor position, Limit limit) {
+        if (position == null) {
+            return status.isPresent()
+                    ? archivedOrderRepository.findFirstPageByUserIdAndStatus(userId, status.get(), limit)
+                    : archivedOrderRepository.findFirstPageByUserId(userId, limit);
+        }
+        return status.isPresent()
+                ? archivedOrderRepository.findPageBeforeByUserIdAndStatus(userId, status.get(), position.createdAt(), position.id(), limit)
+                : archivedOrderRepository.findPageBeforeByUserId(userId, position.createdAt(), position.id(), limit);
+    }
+
+    private ArchivedOrder toArchivedOrder(List<OrderDetailRow> rows) {
+        OrderDetailRow first = rows.get(0);
+        OrderDetailDTO detail = OrderService.toDetail(rows);
+
+        ArchivedOrder archived = new ArchivedOrder();
+        archived.setOrderId(first.getOrderId());
+        archived.setUserId(first.getUserId());
+        archived.setStreet(first.getStreet());
+        archived.setCity(first.getCity());
+        archived.setState(first.getState());
+        archived.setCountry(first.getCountry());
+        archived.setPostalCode(first.getPostalCode());
+        archived.setTotalPrice(first.getTotalPrice());
+        archived.setStatus(first.getStatus());
+        archived.setVersion(first.getVersion());
+        archived.setCreatedAt(first.getCreatedAt());
+        archived.setUpdatedAt(first.getUpdatedAt());
+        archived.setPayload(compress(new Payload(detail.getItems(), detail.getPayment())));
+        return archived;
+    }
+
+    private OrderResponseDTO toResponseDTO(ArchivedOrder archived) {
+        return new OrderResponseDTO(archived.getOrderId(), archived.getUserId(), archived.getStreet(), archived.getCity(),
+                archived.getState(), archived.getCountry(), archived.getPostalCode(), archived.getTotalPrice(),
+                archived.getStatus().toString(), archived.getCreatedAt(), archived.getUpdatedAt());
+    }
+
+    private byte[] compress(Payload payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress archived order", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Payload decompress(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, Payload.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived order", e);
+        }
+    }
+
+    // What an archived order keeps besides its columns
+    record Payload(List<OrderItemResponseDTO> items, PaymentResponseDTO payment) {
+    }
+}
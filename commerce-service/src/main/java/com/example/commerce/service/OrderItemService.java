@@ -1,22 +1,32 @@
 package com.example.commerce.service;
 
+import com.example.commerce.dto.CheckoutItemDTO;
+import com.example.commerce.dto.OrderItemBatchRequestDTO;
 import com.example.commerce.dto.OrderItemRequestDTO;
+import com.example.commerce.model.Money;
 import com.example.commerce.model.Order;
 import com.example.commerce.model.OrderItem;
 import com.example.commerce.dto.OrderItemResponseDTO;
 import com.example.commerce.model.Product;
+import com.example.commerce.model.enums.OrderStatus;
 import com.example.commerce.repository.OrderItemRepository;
 import com.example.commerce.repository.OrderRepository;
 import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.reservation.ReservationTimer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,23 +37,21 @@ public class OrderItemService {
     private final OrderItemRepository orderItemRepository;
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final ReservationTimer reservationTimer;
 
     public List<OrderItemResponseDTO> getOrderItemsByOrderId(UUID orderId) {
         log.info("Retrieving order items for order ID: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> {
-                    log.error("Order with ID: {} not found", orderId);
-                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
-                });
-
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
+        if (!orderRepository.existsById(orderId)) {
+            log.error("Order with ID: {} not found", orderId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+        }
 
-        return orderItems.stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return orderItemRepository.findResponsesByOrderId(orderId);
     }
 
+    @Transactional
     public OrderItemResponseDTO addOrUpdateOrderItem(OrderItemRequestDTO requestDTO) {
         log.info("Processing order item for order ID: {} and product ID: {}", requestDTO.getOrderId(), requestDTO.getProductId());
 
@@ -53,6 +61,7 @@ public class OrderItemService {
                     log.error("Order with ID: {} does not exist", requestDTO.getOrderId());
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
                 });
+        requirePending(order);
 
         // Check if the product exists
         Product product = productRepository.findById(requestDTO.getProductId())
@@ -61,10 +70,9 @@ public class OrderItemService {
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
                 });
 
-        if (product.getStock() < requestDTO.getQuantity()) {
-            log.error("Insufficient stock for product ID: {}. Available: {}, Requested: {}", product.getProductId(), product.getStock(), requestDTO.getQuantity());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock for the product");
-        }
+        // Only the requested units are reserved, the ones already on an existing item are held since it was added
+        int remainingStock = inventoryService.reserve(product.getProductId(), requestDTO.getQuantity(), order.getOrderId());
+        log.info("Reserved {} units of product ID: {}, {} left in stock", requestDTO.getQuantity(), product.getProductId(), remainingStock);
 
         // Check if the product is already in the order
         Optional<OrderItem> existingOrderItem = orderItemRepository.findByOrderAndProduct(order, product);
@@ -73,12 +81,6 @@ public class OrderItemService {
         if (existingOrderItem.isPresent()) {
             orderItem = existingOrderItem.get();
             int newQuantity = orderItem.getQuantity() + requestDTO.getQuantity();
-
-            if (product.getStock() < newQuantity) {
-                log.error("Not enough stock for product ID: {} to update quantity. Available: {}, Required: {}", product.getProductId(), product.getStock(), newQuantity);
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock for the updated quantity");
-            }
-
             orderItem.setQuantity(newQuantity);
             log.info("Updated quantity for order item with product ID: {} to {}", product.getProductId(), newQuantity);
         } else {
@@ -86,17 +88,94 @@ public class OrderItemService {
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setQuantity(requestDTO.getQuantity());
-            orderItem.setPrice(requestDTO.getPrice());
+            // Priced from the product, as in checkout, so the order total never depends on what the client sent
+            orderItem.setPrice(product.getPrice());
 
             log.info("Created new order item for product ID: {} with quantity: {}", product.getProductId(), requestDTO.getQuantity());
         }
 
+        // The added units keep the price of their line; the order entity is managed, so the new total is flushed with it
+        Money addedTotal = Money.of(orderItem.getPrice()).times(requestDTO.getQuantity());
+        order.setTotalPrice(Money.of(order.getTotalPrice()).plus(addedTotal).toBigDecimal());
+
+        // Every change to a pending order restarts the time its reservations are held
+        order.setReservationExpiresAt(reservationTimer.nextDeadline());
+
         OrderItem savedOrderItem = orderItemRepository.save(orderItem);
         log.info("Successfully processed order item for product ID: {}", product.getProductId());
+        reservationTimer.schedule(order.getOrderId(), order.getReservationExpiresAt());
 
         return mapToResponseDTO(savedOrderItem);
     }
 
+    /**
+     * Adds many lines to one order in a single transaction: the order is read once, the products and the existing
+     * items of the order each in one IN query, and the new and changed rows are flushed as JDBC batches. New lines are
+     * priced from the product, as in checkout. If any line cannot be reserved, the whole batch rolls back.
+     */
+    @Transactional
+    public List<OrderItemResponseDTO> addOrUpdateOrderItems(OrderItemBatchRequestDTO requestDTO) {
+        log.info("Processing {} order items for order ID: {}", requestDTO.getItems().size(), requestDTO.getOrderId());
+
+        Order order = orderRepository.findById(requestDTO.getOrderId())
+                .orElseThrow(() -> {
+                    log.error("Order with ID: {} does not exist", requestDTO.getOrderId());
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+                });
+        requirePending(order);
+
+        // Repeated products become one line; product order is also the order in which their rows get locked
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (CheckoutItemDTO item : requestDTO.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<UUID, Product> products = productRepository.findAllByProductIdIn(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        for (UUID productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                log.error("Product with ID: {} does not exist", productId);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+            }
+        }
+
+        Map<UUID, OrderItem> existingItems = orderItemRepository
+                .findByOrderOrderIdAndProductProductIdIn(order.getOrderId(), quantities.keySet()).stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getProductId(), Function.identity()));
+
+        Money addedTotal = Money.ZERO;
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            inventoryService.reserve(product.getProductId(), line.getValue(), order.getOrderId());
+
+            OrderItem orderItem = existingItems.get(product.getProductId());
+            if (orderItem != null) {
+                orderItem.setQuantity(orderItem.getQuantity() + line.getValue());
+            } else {
+                orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(line.getValue());
+                orderItem.setPrice(product.getPrice());
+            }
+            addedTotal = addedTotal.plus(Money.of(orderItem.getPrice()).times(line.getValue()));
+            orderItems.add(orderItem);
+        }
+        order.setTotalPrice(Money.of(order.getTotalPrice()).plus(addedTotal).toBigDecimal());
+
+        // Every change to a pending order restarts the time its reservations are held
+        order.setReservationExpiresAt(reservationTimer.nextDeadline());
+
+        List<OrderItem> savedItems = orderItemRepository.saveAll(orderItems);
+        log.info("Processed {} order items for order ID: {}, {} of them new", savedItems.size(), order.getOrderId(),
+                savedItems.size() - existingItems.size());
+        reservationTimer.schedule(order.getOrderId(), order.getReservationExpiresAt());
+
+        return savedItems.stream().map(this::mapToResponseDTO).toList();
+    }
+
+    @Transactional
     public void deleteOrderItem(UUID orderItemId) {
         log.info("Removing order item with ID: {}", orderItemId);
 
@@ -106,10 +185,24 @@ public class OrderItemService {
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order item not found");
                 });
 
+        Order order = orderItem.getOrder();
+        requirePending(order);
+
         orderItemRepository.delete(orderItem);
+        order.setTotalPrice(Money.of(order.getTotalPrice()).minus(Money.of(orderItem.getPrice()).times(orderItem.getQuantity())).toBigDecimal());
+        inventoryService.release(orderItem.getProduct().getProductId(), orderItem.getQuantity(), order.getOrderId());
         log.info("Order item with ID: {} removed", orderItemId);
     }
 
+    // Only pending orders hold reserved stock: a completed order has sold its units and a cancelled one gave them back,
+    // so changing their items would take stock forever or return stock that is gone
+    private static void requirePending(Order order) {
+        if (order.getStatus() != OrderStatus.PENDING) {
+            log.error("Items of order ID: {} cannot be changed in status {}", order.getOrderId(), order.getStatus());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Items can only be changed while the order is pending");
+        }
+    }
+
     private OrderItemResponseDTO mapToResponseDTO(OrderItem orderItem) {
         return new OrderItemResponseDTO(
                 orderItem.getOrderItemId(),
@@ -0,0 +1,79 @@
+package com.example.commerce.service;
+
+import com.example.commerce.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily upkeep of the month partitioned orders and order_items tables: the partitions of the coming months are created
+ * ahead of time, so new rows never land in the default partitions, and final orders past the archive age are moved to
+ * the archive in batches, one transaction each. A failed batch is left for the next day's run. Rows that reached a
+ * default partition while the job was not running are moved into their month's partition once it is created.
+ */
+@Slf4j
+@Service
+public class OrderRetentionService {
+
+    private static final String[] PARTITIONED_TABLES = {"orders", "order_items"};
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final Duration archiveAfter;
+    private final int batchSize;
+    private final int partitionsAhead;
+
+    public OrderRetentionService(OrderRepository orderRepository, OrderArchiveService orderArchiveService,
+                                 @Value("${commerce.orders.archive-after:365d}") Duration archiveAfter,
+                                 @Value("${commerce.orders.archive-batch-size:500}") int batchSize,
+                                 @Value("${commerce.orders.partitions-ahead:3}") int partitionsAhead) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.archiveAfter = archiveAfter;
+        this.batchSize = batchSize;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    @Scheduled(cron = "${commerce.orders.retention-cron:0 30 3 * * *}")
+    public void maintain() {
+        createPartitions();
+        archiveOrders(LocalDateTime.now().minus(archiveAfter));
+    }
+
+    public void createPartitions() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                int created = orderRepository.createMonthlyPartitions(table, thisMonth, thisMonth.plusMonths(partitionsAhead));
+                if (created > 0) {
+                    log.info("Created {} monthly partitions of {}", created, table);
+                }
+            } catch (RuntimeException e) {
+                log.error("Creating the monthly partitions of {} failed", table, e);
+            }
+        }
+    }
+
+    // Returns the number of orders archived
+    public int archiveOrders(LocalDateTime cutoff) {
+        int archived = 0;
+        try {
+            int moved;
+            do {
+                moved = orderArchiveService.archiveOrders(cutoff, batchSize);
+                archived += moved;
+            } while (moved == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Archiving orders created before {} failed after {} orders", cutoff, archived, e);
+        }
+        if (archived > 0) {
+            log.info("Archived {} orders created before {}", archived, cutoff);
+        }
+        return archived;
+    }
+}
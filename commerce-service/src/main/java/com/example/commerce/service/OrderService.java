@@ -1,70 +1,159 @@
 package com.example.commerce.service;
 
+import com.example.commerce.dto.CursorPageDTO;
+import com.example.commerce.dto.OrderDetailDTO;
+import com.example.commerce.dto.OrderItemResponseDTO;
 import com.example.commerce.dto.OrderRequestDTO;
 import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.dto.OrderStatusResultDTO;
+import com.example.commerce.dto.OrderStatusResultDTO.Outcome;
+import com.example.commerce.dto.PaymentResponseDTO;
+import com.example.commerce.event.OrderStatusChangedEvent;
+import com.example.commerce.model.Money;
 import com.example.commerce.model.Order;
 import com.example.commerce.model.User;
 import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.repository.EntityVersion;
 import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.OrderRepository.OrderDetailRow;
 import com.example.commerce.repository.UserRepository;
+import com.example.commerce.reservation.ReservationTimer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // The order of the keyset queries; UUIDs compare as unsigned bytes there, unlike UUID.compareTo
+    private static final Comparator<OrderResponseDTO> NEWEST_FIRST = Comparator
+            .comparing(OrderResponseDTO::getCreatedAt)
+            .thenComparing(OrderResponseDTO::getOrderId, Comparator
+                    .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+                    .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned))
+            .reversed();
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final InventoryService inventoryService;
+    private final ReservationTimer reservationTimer;
+    private final WarehouseAllocationService warehouseAllocationService;
+    private final OrderArchiveService orderArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderResponseDTO getOrderById(UUID orderId) {
         log.info("Retrieving order details for order ID: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
+        return orderRepository.findResponseById(orderId)
+                .or(() -> orderArchiveService.findResponse(orderId))
                 .orElseThrow(() -> {
                     log.error("Order ID {} does not exist", orderId);
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
                 });
+    }
 
-        return mapToResponseDTO(order);
+    // Everything the order-detail page shows, assembled from the rows of a single query
+    public OrderDetailDTO getOrderDetail(UUID orderId) {
+        log.info("Retrieving order, items and payment for order ID: {}", orderId);
+
+        List<OrderDetailRow> rows = orderRepository.findDetailRowsById(orderId);
+        if (!rows.isEmpty()) {
+            return toDetail(rows);
+        }
+        return orderArchiveService.findDetail(orderId)
+                .orElseThrow(() -> {
+                    log.error("Order ID {} does not exist", orderId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+                });
     }
 
-    public List<OrderResponseDTO> getOrdersForUser(UUID userId, Optional<OrderStatus> status) {
+    // Backs conditional GETs, so an unchanged order is answered without loading it and its user
+    public EntityVersion getOrderVersion(UUID orderId) {
+        return orderRepository.findVersionById(orderId)
+                .or(() -> orderArchiveService.findVersion(orderId))
+                .orElseThrow(() -> {
+                    log.error("Order ID {} does not exist", orderId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+                });
+    }
+
+    // Newest first; the user is only looked up when a page comes back empty, to tell an unknown user from one without orders
+    public CursorPageDTO<OrderResponseDTO> getOrdersForUser(UUID userId, Optional<OrderStatus> status, String cursor, int size) {
         log.info("Retrieving orders for user ID: {} with status: {}", userId, status.orElse(null));
 
-        if (!userRepository.existsById(userId)) {
-            log.error("User with ID {} not found", userId);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrderResponseDTO> live;
+        KeysetCursor position = cursor != null ? KeysetCursor.decode(cursor) : null;
+        if (position == null) {
+            live = status.isPresent()
+                    ? orderRepository.findFirstPageByUserIdAndStatus(userId, status.get(), limit)
+                    : orderRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            live = status.isPresent()
+                    ? orderRepository.findPageBeforeByUserIdAndStatus(userId, status.get(), position.createdAt(), position.id(), limit)
+                    : orderRepository.findPageBeforeByUserId(userId, position.createdAt(), position.id(), limit);
         }
 
-        List<Order> orders;
-        if (status.isPresent()) {
-            orders = orderRepository.findByUserUserIdAndStatus(userId, status.get());
-        } else {
-            orders = orderRepository.findByUserUserId(userId);
+        // Archived orders are read with the same keyset and merged in, so the history runs on past the archive age. A
+        // full live page that does not reach back to the archive horizon cannot have archived orders between its rows,
+        // so most pages skip the archive. An order archived between both reads shows up in both and is kept once
+        List<OrderResponseDTO> orders = live;
+        if (live.size() < limit.max() || live.get(live.size() - 1).getCreatedAt().isBefore(orderArchiveService.horizon())) {
+            List<OrderResponseDTO> archived = orderArchiveService.findPage(userId, status, position, limit);
+            if (!archived.isEmpty()) {
+                orders = Stream.concat(live.stream(), archived.stream()).distinct().sorted(NEWEST_FIRST).limit(limit.max()).toList();
+            }
         }
 
         if (orders.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
+                log.error("User with ID {} not found", userId);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+            }
             log.warn("No order found for user ID: {} with status: {}", userId, status.orElse(null));
         }
 
-        return orders.stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        // One extra row is fetched to tell whether another page follows without a COUNT query
+        boolean hasMore = orders.size() > pageSize;
+        List<OrderResponseDTO> pageContent = hasMore ? orders.subList(0, pageSize) : orders;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderResponseDTO last = pageContent.get(pageContent.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getOrderId()).encode();
+        }
+        return new CursorPageDTO<>(pageContent, nextCursor);
     }
 
     public OrderResponseDTO createOrder(OrderRequestDTO requestDTO) {
         log.info("Creating a new order for user ID: {}", requestDTO.getUserId());
 
+        // Created otherwise, an order would skip the state machine, e.g. a completed one would record no sale
+        if (requestDTO.getStatus() != null && !OrderStatus.PENDING.name().equalsIgnoreCase(requestDTO.getStatus())) {
+            log.error("Rejected new order for user ID {} in status {}", requestDTO.getUserId(), requestDTO.getStatus());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Orders can only be created as PENDING");
+        }
+
         User user = userRepository.findById(requestDTO.getUserId())
                 .orElseThrow(() -> {
                    log.error("User with user ID {} does not exist", requestDTO.getUserId());
@@ -78,42 +167,138 @@ public class OrderService {
         order.setState(requestDTO.getState());
         order.setCountry(requestDTO.getCountry());
         order.setPostalCode(requestDTO.getPostalCode());
-        order.setTotalPrice(requestDTO.getTotalPrice());
-        order.setStatus(OrderStatus.valueOf(requestDTO.getStatus().toUpperCase()));
+        // Grows with the items added to the order, see OrderItemService
+        order.setTotalPrice(Money.ZERO.toBigDecimal());
+        order.setStatus(OrderStatus.PENDING);
+        order.setReservationExpiresAt(reservationTimer.nextDeadline());
 
         Order savedOrder = orderRepository.save(order);
         log.info("Order created successfully with ID: {}", savedOrder.getOrderId());
+        reservationTimer.schedule(savedOrder.getOrderId(), savedOrder.getReservationExpiresAt());
 
         return mapToResponseDTO(savedOrder);
     }
 
+    @Transactional
     public OrderResponseDTO updateOrderStatus(UUID orderId, OrderStatus newStatus) {
         log.info("Updating order status for order ID: {} to {}", orderId, newStatus);
 
-        Order order = orderRepository.findById(orderId)
+        // Locked like in WarehouseAllocationService.allocate, so a cancel cannot miss an allocation committed meanwhile
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> {
                    log.error("Updating non-existing order with ID: {}", orderId);
                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
                 });
 
+        if (!order.getStatus().canTransitionTo(newStatus)) {
+            log.error("Illegal status change of order ID: {} from {} to {}", orderId, order.getStatus(), newStatus);
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Cannot change order status from " + order.getStatus() + " to " + newStatus);
+        }
+        if (order.getStatus() == newStatus) {
+            return mapToResponseDTO(order);
+        }
+
+        if (newStatus == OrderStatus.CANCELLED) {
+            inventoryService.releaseOrderItems(orderId);
+            warehouseAllocationService.releaseAllocation(orderId);
+        } else if (newStatus == OrderStatus.COMPLETED) {
+            inventoryService.recordSale(orderId);
+        }
+
+        // Only pending orders hold their reservations on a deadline, and no order goes back to pending
+        order.setReservationExpiresAt(null);
+        reservationTimer.cancelAfterCommit(List.of(orderId));
+
         order.setStatus(newStatus);
         Order updatedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(newStatus, List.of(orderId)));
         return mapToResponseDTO(updatedOrder);
     }
 
+    // One chunk of a bulk status update, see BulkOrderStatusService. The same transitions as updateOrderStatus, but the
+    // rows are locked and read in one query, the legal moves applied with one UPDATE and their side effects batched
+    @Transactional
+    public List<OrderStatusResultDTO> transitionOrders(Collection<UUID> orderIds, OrderStatus newStatus) {
+        Map<UUID, OrderStatus> current = new HashMap<>();
+        orderRepository.lockStatusesByIdIn(orderIds)
+                .forEach(row -> current.put(row.getOrderId(), row.getStatus()));
+
+        List<OrderStatusResultDTO> results = new ArrayList<>(orderIds.size());
+        List<UUID> moved = new ArrayList<>();
+        for (UUID orderId : orderIds) {
+            OrderStatus status = current.get(orderId);
+            Outcome outcome;
+            if (status == null) {
+                outcome = Outcome.NOT_FOUND;
+            } else if (status == newStatus) {
+                outcome = Outcome.UNCHANGED;
+            } else if (!status.canTransitionTo(newStatus)) {
+                outcome = Outcome.ILLEGAL_TRANSITION;
+            } else {
+                outcome = Outcome.UPDATED;
+                moved.add(orderId);
+            }
+            results.add(new OrderStatusResultDTO(orderId, outcome, status != null ? status.toString() : null));
+        }
+        if (moved.isEmpty()) {
+            return results;
+        }
+
+        orderRepository.updateStatus(moved, newStatus);
+        if (newStatus == OrderStatus.CANCELLED) {
+            inventoryService.releaseOrderItems(moved);
+            // Only completed orders are allocated to warehouses
+            moved.stream()
+                    .filter(orderId -> current.get(orderId) == OrderStatus.COMPLETED)
+                    .forEach(warehouseAllocationService::releaseAllocation);
+        } else if (newStatus == OrderStatus.COMPLETED) {
+            inventoryService.recordSales(moved);
+        }
+        reservationTimer.cancelAfterCommit(List.copyOf(moved));
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(newStatus, List.copyOf(moved)));
+        log.debug("Moved {} of {} orders to {}", moved.size(), orderIds.size(), newStatus);
+        return results;
+    }
+
+    @Transactional
     public void deleteOrder(UUID orderId) {
         log.info("Deleting order with ID: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> {
                    log.error("Order ID {} does not exist", orderId);
                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
                 });
 
+        // Items go with the order, so a still pending order has to give its reserved units back first
+        if (order.getStatus() == OrderStatus.PENDING) {
+            inventoryService.releaseOrderItems(orderId);
+        }
+        warehouseAllocationService.releaseAllocation(orderId);
+
         orderRepository.delete(order);
+        reservationTimer.cancelAfterCommit(List.of(orderId));
         log.info("Order with ID: {} deleted successfully", orderId);
     }
 
+    // Folds the rows of one order from OrderRepository.DETAIL_SELECT, one per item, into the nested detail
+    static OrderDetailDTO toDetail(List<OrderDetailRow> rows) {
+        OrderDetailRow first = rows.get(0);
+        OrderResponseDTO order = new OrderResponseDTO(first.getOrderId(), first.getUserId(), first.getStreet(), first.getCity(),
+                first.getState(), first.getCountry(), first.getPostalCode(), first.getTotalPrice(), first.getStatus().toString(),
+                first.getCreatedAt(), first.getUpdatedAt());
+        List<OrderItemResponseDTO> items = rows.stream()
+                .filter(row -> row.getOrderItemId() != null)
+                .map(row -> new OrderItemResponseDTO(row.getOrderItemId(), first.getOrderId(), row.getProductId(), row.getQuantity(),
+                        row.getPrice(), row.getProductName(), row.getItemCreatedAt(), row.getItemUpdatedAt()))
+                .toList();
+        PaymentResponseDTO payment = first.getPaymentId() == null ? null
+                : new PaymentResponseDTO(first.getPaymentId(), first.getOrderId(), first.getPaymentAmount(), first.getPaymentMethod(),
+                        first.getPaymentStatus().toString(), first.getTransactionId(), first.getPaymentCreatedAt());
+        return new OrderDetailDTO(order, items, payment);
+    }
+
     private OrderResponseDTO mapToResponseDTO(Order order) {
         return new OrderResponseDTO(
             order.getOrderId(),
@@ -28,10 +28,8 @@ public class PaymentService {
     public PaymentResponseDTO getPaymentById(UUID paymentId) {
         log.info("Retrieving payment details for Payment ID: {}", paymentId);
 
-        Payment payment = paymentRepository.findById(paymentId)
+        return paymentRepository.findResponseById(paymentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found"));
-
-        return mapToResponseDTO(payment);
     }
 
     @Transactional
@@ -81,6 +79,7 @@ public class PaymentService {
         return mapToResponseDTO(savedPayment);
     }
 
+    @Transactional
     public PaymentResponseDTO updatePaymentStatus(UUID paymentId, PaymentStatus newStatus) {
         log.info("Updating payment status for Payment ID: {} to {}", paymentId, newStatus);
 
@@ -94,6 +93,14 @@ public class PaymentService {
             log.warn("Attempted to update a completed payment. Payment ID: {}", paymentId);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot update a completed payment");
         }
+        if (!payment.getStatus().canTransitionTo(newStatus)) {
+            log.error("Illegal status change of payment ID: {} from {} to {}", paymentId, payment.getStatus(), newStatus);
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Cannot change payment status from " + payment.getStatus() + " to " + newStatus);
+        }
+        if (payment.getStatus() == newStatus) {
+            return mapToResponseDTO(payment);
+        }
 
         payment.setStatus(newStatus);
         Payment updatedPayment = paymentRepository.save(payment);
@@ -0,0 +1,112 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.CacheStatsDTO;
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.repository.EntityVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded read cache for single-product lookups. ProductService writes through it on create and update and
+ * evicts on delete, so the TTL only matters for rows changed outside the service (e.g. manual SQL). Changes made in a
+ * transaction only reach the cache once it commits, so a rolled-back write never leaves its product behind. The ETag
+ * version of each product is cached next to it and invalidated with it, so a cached GET needs no query at all.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<UUID, ProductResponseDTO> cache;
+    private final Cache<UUID, EntityVersion> versions;
+    private final long maximumSize;
+
+    public ProductCache(@Value("${commerce.cache.products.maximum-size:10000}") long maximumSize,
+                        @Value("${commerce.cache.products.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    // Concurrent misses for the same product share a single load; exceptions from the loader are not cached
+    public ProductResponseDTO get(UUID productId, Function<UUID, ProductResponseDTO> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public EntityVersion getVersion(UUID productId, Function<UUID, EntityVersion> loader) {
+        return versions.get(productId, loader);
+    }
+
+    public ProductResponseDTO getIfPresent(UUID productId) {
+        return cache.getIfPresent(productId);
+    }
+
+    public void put(ProductResponseDTO product) {
+        cache.put(product.getProductId(), product);
+    }
+
+    public void evict(UUID productId) {
+        cache.invalidate(productId);
+        versions.invalidate(productId);
+    }
+
+    // Evicted right away, so reads inside the writing transaction see the change, and written once the transaction
+    // has committed; an entry a concurrent reader loaded in between is replaced then
+    public void putAfterCommit(ProductResponseDTO product) {
+        evict(product.getProductId());
+        onCompletion(committed -> {
+            if (committed) {
+                versions.invalidate(product.getProductId());
+                put(product);
+            } else {
+                evict(product.getProductId());
+            }
+        });
+    }
+
+    // Evicted right away and again on completion, so an old row reloaded before the commit is not kept for the TTL
+    public void evictAfterCommit(UUID productId) {
+        evict(productId);
+        onCompletion(committed -> evict(productId));
+    }
+
+    private static void onCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(
+                cache.estimatedSize(),
+                maximumSize,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
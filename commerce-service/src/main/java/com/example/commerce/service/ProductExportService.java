@@ -0,0 +1,127 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole catalog for feed partners. Products are read through a server-side cursor and each row is
+ * written to the output as soon as it arrives, so memory use does not depend on the catalog size.
+ */
+@Slf4j
+@Service
+public class ProductExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER = "productId,name,description,price,stock,imageUrl,categoryId";
+
+    private final ProductRepository productRepository;
+    private final ObjectWriter rowWriter;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        // The servlet output buffer decides when to flush, not every single row
+        this.rowWriter = objectMapper.writerFor(ProductResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // The read-only transaction keeps the JDBC cursor open (PostgreSQL only honors the fetch size outside autocommit)
+    @Transactional(readOnly = true)
+    public long exportProducts(Format format, OutputStream outputStream) throws IOException {
+        log.info("Exporting product catalog as {}", format);
+
+        AtomicLong rowCount = new AtomicLong();
+        try (Stream<ProductResponseDTO> products = productRepository.streamAllForExport()) {
+            if (format == Format.NDJSON) {
+                writeNdjson(products, outputStream, rowCount);
+            } else {
+                writeCsv(products, outputStream, rowCount);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Exported {} products as {}", rowCount.get(), format);
+        return rowCount.get();
+    }
+
+    private void writeNdjson(Stream<ProductResponseDTO> products, OutputStream outputStream, AtomicLong rowCount) throws IOException {
+        JsonGenerator generator = rowWriter.createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        products.forEach(product -> {
+            try {
+                rowWriter.writeValue(generator, product);
+                generator.writeRaw('\n');
+                rowCount.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    private void writeCsv(Stream<ProductResponseDTO> products, OutputStream outputStream, AtomicLong rowCount) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        products.forEach(product -> {
+            try {
+                writer.write(String.join(",",
+                        csvField(product.getProductId()),
+                        csvField(product.getName()),
+                        csvField(product.getDescription()),
+                        csvField(product.getPrice() != null ? product.getPrice().toPlainString() : null),
+                        csvField(product.getStock()),
+                        csvField(product.getImageUrl()),
+                        csvField(product.getCategoryId())
+                ));
+                writer.write('\n');
+                rowCount.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    // RFC 4180: quote fields holding separators, quotes or line breaks and double any embedded quote
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.ProductImportErrorDTO;
+import com.example.commerce.dto.ProductImportResultDTO;
+import com.example.commerce.dto.ProductRequestDTO;
+import com.example.commerce.model.Category;
+import com.example.commerce.model.Product;
+import com.example.commerce.repository.CategoryRepository;
+import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.search.ProductNameFilter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk supplier onboarding. Instead of one category lookup, one duplicate check and one insert per product, an
+ * import resolves every referenced category with a single IN query, checks all names against the table in a few
+ * set-based queries and inserts the accepted rows in JDBC batches (see hibernate.jdbc.batch_size).
+ * <p>
+ * Rows are validated individually and rejected rows are reported back with their position, the rest is imported.
+ * Every batch commits on its own through ProductImportWriter, so a large import holds no locks and no change events
+ * for longer than one batch; the rows of a batch that fails to insert are reported like rejected ones.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    public static final int MAX_ROWS = 50_000;
+
+    // Matches hibernate.jdbc.batch_size, so every flush sends exactly one JDBC batch
+    private static final int BATCH_SIZE = 500;
+    // Keeps the IN list of the duplicate check well below the bind parameter limits of the drivers
+    private static final int NAME_LOOKUP_CHUNK_SIZE = 1000;
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "price", "stock", "imageUrl", "categoryId");
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductNameFilter productNameFilter;
+    private final ProductImportWriter productImportWriter;
+    private final Validator validator;
+
+    public ProductImportResultDTO importProducts(List<ProductRequestDTO> requestDTOs) {
+        log.info("Importing {} products", requestDTOs.size());
+        checkRowCount(requestDTOs.size());
+
+        List<ImportRow> rows = new ArrayList<>(requestDTOs.size());
+        for (int i = 0; i < requestDTOs.size(); i++) {
+            rows.add(new ImportRow(i + 1, requestDTOs.get(i)));
+        }
+        return importRows(rows, new ArrayList<>());
+    }
+
+    public ProductImportResultDTO importCsv(InputStream inputStream) throws IOException {
+        log.info("Importing products from CSV upload");
+
+        List<ImportRow> rows = new ArrayList<>();
+        List<ProductImportErrorDTO> errors = new ArrayList<>();
+        try (Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null || !header.stream().map(String::trim).toList().equals(CSV_COLUMNS)) {
+                log.error("Invalid CSV header: {}", header);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must be " + String.join(",", CSV_COLUMNS));
+            }
+
+            int rowNumber = 0;
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                rowNumber++;
+                checkRowCount(rowNumber);
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue; // Blank line, e.g. a trailing newline written twice
+                }
+                try {
+                    rows.add(new ImportRow(rowNumber, parseCsvRecord(record)));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new ProductImportErrorDTO(rowNumber, record.isEmpty() ? null : record.get(0), e.getMessage()));
+                }
+            }
+        }
+        return importRows(rows, errors);
+    }
+
+    private ProductImportResultDTO importRows(List<ImportRow> rows, List<ProductImportErrorDTO> errors) {
+        int totalRows = rows.size() + errors.size();
+
+        List<ImportRow> validRows = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(row.request());
+            if (violations.isEmpty()) {
+                validRows.add(row);
+            } else {
+                errors.add(row.error(violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            }
+        }
+
+        Map<UUID, Category> categoriesById = new HashMap<>();
+        categoryRepository.findAllById(validRows.stream().map(row -> row.request().getCategoryId()).collect(Collectors.toSet()))
+                .forEach(category -> categoriesById.put(category.getCategoryId(), category));
+
+        Set<String> takenNames = findExistingNames(validRows);
+
+        List<Product> batch = new ArrayList<>(BATCH_SIZE);
+        List<ImportRow> batchRows = new ArrayList<>(BATCH_SIZE);
+        int importedCount = 0;
+        for (ImportRow row : validRows) {
+            ProductRequestDTO requestDTO = row.request();
+            Category category = categoriesById.get(requestDTO.getCategoryId());
+            if (category == null) {
+                errors.add(row.error("Category not found"));
+                continue;
+            }
+            // Adding the name also rejects a repeated name further down in the same import
+            if (!takenNames.add(normalizeName(requestDTO.getName()))) {
+                errors.add(row.error("Product with this name already exists"));
+                continue;
+            }
+
+            Product product = new Product();
+            product.setName(requestDTO.getName().trim());
+            product.setDescription(requestDTO.getDescription());
+            product.setPrice(requestDTO.getPrice());
+            product.setStock(requestDTO.getStock());
+            product.setImageUrl(requestDTO.getImageUrl());
+            product.setCategory(category);
+            batch.add(product);
+            batchRows.add(row);
+
+            if (batch.size() == BATCH_SIZE) {
+                importedCount += insertBatch(batch, batchRows, errors);
+            }
+        }
+        importedCount += insertBatch(batch, batchRows, errors);
+
+        errors.sort(Comparator.comparingInt(ProductImportErrorDTO::getRow));
+        log.info("Imported {} of {} products, {} rows rejected", importedCount, totalRows, errors.size());
+        return new ProductImportResultDTO(totalRows, importedCount, errors);
+    }
+
+    private int insertBatch(List<Product> batch, List<ImportRow> batchRows, List<ProductImportErrorDTO> errors) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int inserted = batch.size();
+        try {
+            productImportWriter.insert(batch);
+        } catch (RuntimeException e) {
+            log.error("Importing a batch of {} products failed", batch.size(), e);
+            batchRows.forEach(row -> errors.add(row.error("Product could not be saved")));
+            inserted = 0;
+        }
+        batch.clear();
+        batchRows.clear();
+        return inserted;
+    }
+
+    // Only names the Bloom filter cannot rule out are looked up in the table
+    private Set<String> findExistingNames(List<ImportRow> rows) {
+        List<String> names = rows.stream()
+                .map(row -> row.request().getName())
+                .filter(productNameFilter::mightContain)
+                .map(ProductImportService::normalizeName)
+                .collect(Collectors.toCollection(LinkedHashSet::new))
+                .stream()
+                .toList();
+
+        Set<String> existingNames = new HashSet<>();
+        for (int from = 0; from < names.size(); from += NAME_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + NAME_LOOKUP_CHUNK_SIZE, names.size()));
+            productRepository.findExistingLowerCaseNames(chunk).forEach(name -> existingNames.add(name.toLowerCase(Locale.ROOT)));
+        }
+        return existingNames;
+    }
+
+    private void checkRowCount(int rowCount) {
+        if (rowCount > MAX_ROWS) {
+            log.error("Import exceeds the limit of {} rows", MAX_ROWS);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "An import cannot contain more than " + MAX_ROWS + " rows");
+        }
+    }
+
+    private static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static ProductRequestDTO parseCsvRecord(List<String> record) {
+        if (record.size() != CSV_COLUMNS.size()) {
+            throw new IllegalArgumentException("Expected " + CSV_COLUMNS.size() + " columns but found " + record.size());
+        }
+        return new ProductRequestDTO(
+                emptyToNull(record.get(0)),
+                emptyToNull(record.get(1)),
+                parseField(record.get(2), BigDecimal::new, "Invalid price"),
+                parseField(record.get(3), Integer::valueOf, "Invalid stock quantity"),
+                emptyToNull(record.get(4)),
+                parseField(record.get(5), UUID::fromString, "Invalid category ID")
+        );
+    }
+
+    private static <T> T parseField(String value, Function<String, T> parser, String message) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return null; // Reported by the bean validation of the row
+        }
+        try {
+            return parser.apply(trimmed);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(message + ": " + value);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    // Reads one RFC 4180 record: quoted fields may hold separators, line breaks and doubled quotes. Null at the end
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record ImportRow(int rowNumber, ProductRequestDTO request) {
+
+        ProductImportErrorDTO error(String message) {
+            return new ProductImportErrorDTO(rowNumber, request.getName(), message);
+        }
+    }
+}
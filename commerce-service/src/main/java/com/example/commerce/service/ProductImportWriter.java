@@ -0,0 +1,56 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.model.Product;
+import com.example.commerce.model.enums.InventoryMovement;
+import com.example.commerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts one batch of a product import, see ProductImportService. Each batch is its own transaction, so the change
+ * events of a batch reach the product indexes once it has committed and a failing batch takes no other one with it.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportWriter {
+
+    private final ProductRepository productRepository;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Sends the batch as one JDBC batch and detaches it, so the persistence context does not grow with the import
+    @Transactional
+    public void insert(List<Product> batch) {
+        productRepository.saveAll(batch);
+        entityManager.flush();
+        entityManager.clear();
+
+        for (Product product : batch) {
+            inventoryLedgerService.record(product.getProductId(), InventoryMovement.ADJUSTMENT, product.getStock(), product.getStock(), null);
+            eventPublisher.publishEvent(new ProductChangedEvent(mapToResponseDTO(product)));
+        }
+    }
+
+    private static ProductResponseDTO mapToResponseDTO(Product product) {
+        return new ProductResponseDTO(
+                product.getProductId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStock(),
+                product.getImageUrl(),
+                product.getCategory().getCategoryId()
+        );
+    }
+}
@@ -1,18 +1,40 @@
 package com.example.commerce.service;
 
+import com.example.commerce.dto.CursorPageDTO;
+import com.example.commerce.dto.ProductFilterResponseDTO;
 import com.example.commerce.dto.ProductRequestDTO;
 import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.dto.ProductSuggestionDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductDeletedEvent;
 import com.example.commerce.model.Category;
 import com.example.commerce.model.Product;
+import com.example.commerce.model.enums.InventoryMovement;
 import com.example.commerce.repository.CategoryRepository;
+import com.example.commerce.repository.EntityVersion;
 import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.search.FacetResult;
+import com.example.commerce.search.ProductFacetIndex;
+import com.example.commerce.search.ProductFilter;
+import com.example.commerce.search.ProductNameFilter;
+import com.example.commerce.search.ProductSearchIndex;
+import com.example.commerce.search.ProductSuggestionIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -21,22 +43,42 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SUGGESTIONS = 10;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductNameFilter productNameFilter;
+    private final InventoryService inventoryService;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductResponseDTO getProductById(UUID productId) {
         log.info("Retrieving product with ID: {}", productId);
 
-        Product product = productRepository.findById(productId)
+        return productCache.get(productId, id -> productRepository.findResponseById(id)
                 .orElseThrow(() -> {
-                    log.error("Product with ID: {} not found", productId);
+                    log.error("Product with ID: {} not found", id);
                     return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
-                });
+                }));
+    }
 
-        return mapToResponseDTO(product);
+    // Backs conditional GETs, so an unchanged product is answered without loading or mapping it. Cached with the
+    // product itself, so a warm GET runs no query
+    public EntityVersion getProductVersion(UUID productId) {
+        return productCache.getVersion(productId, id -> productRepository.findVersionById(id)
+                .orElseThrow(() -> {
+                    log.error("Product with ID: {} not found", id);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+                }));
     }
 
-    public List<ProductResponseDTO> getProductsByCategory(UUID categoryId) {
+    public CursorPageDTO<ProductResponseDTO> getProductsByCategory(UUID categoryId, String cursor, int size) {
         log.info("Retrieving products for category ID: {}", categoryId);
 
         if (!categoryRepository.existsById(categoryId)) {
@@ -44,20 +86,78 @@ public class ProductService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
         }
 
-        return productRepository.findByCategory_CategoryId(categoryId)
-                .stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        Limit limit = Limit.of(boundedPageSize(size) + 1);
+        List<Product> products;
+        if (cursor == null) {
+            products = productRepository.findFirstPageByCategory(categoryId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            products = productRepository.findPageAfterByCategory(categoryId, position.createdAt(), position.id(), limit);
+        }
+
+        return toPage(products, boundedPageSize(size));
     }
 
-    public List<ProductResponseDTO> getAllProducts() {
-        log.info("Retrieving all products");
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<ProductResponseDTO> getAllProducts(String cursor, int size) {
+        log.info("Retrieving products page of size {}", size);
+
+        Limit limit = Limit.of(boundedPageSize(size) + 1);
+        List<Product> products;
+        if (cursor == null) {
+            products = productRepository.findFirstPage(limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            products = productRepository.findPageAfter(position.createdAt(), position.id(), limit);
+        }
+
+        return toPage(products, boundedPageSize(size));
+    }
+
+    public List<ProductResponseDTO> searchProducts(String query, int limit) {
+        log.info("Searching products for query: {}", query);
+
+        List<UUID> rankedProductIds = productSearchIndex.search(query, boundedPageSize(limit));
+        return resolveProducts(rankedProductIds);
+    }
+
+    // Served entirely from memory, this runs on every keystroke of the search bar. Up to MAX_SUGGESTIONS a lookup is
+    // answered from the lists the trie keeps cached
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, int limit) {
+        return productSuggestionIndex.suggest(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
     }
 
+    public ProductFilterResponseDTO filterProducts(Set<UUID> categoryIds, BigDecimal minPrice, BigDecimal maxPrice,
+                                                   boolean inStockOnly, int page, int size) {
+        log.info("Filtering products for categories: {}, price range: {} - {}, in stock only: {}", categoryIds, minPrice, maxPrice, inStockOnly);
+
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            log.error("Invalid price range: {} - {}", minPrice, maxPrice);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Minimum price cannot exceed maximum price");
+        }
+
+        int pageSize = boundedPageSize(size);
+        int offset;
+        try {
+            offset = Math.multiplyExact(Math.max(page, 0), pageSize);
+        } catch (ArithmeticException e) {
+            log.error("Page {} of size {} is out of range", page, pageSize);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page is out of range");
+        }
+        FacetResult result = productFacetIndex.filter(
+                new ProductFilter(categoryIds, minPrice, maxPrice, inStockOnly),
+                offset,
+                pageSize
+        );
+
+        return new ProductFilterResponseDTO(
+                result.totalCount(),
+                resolveProducts(result.productIds()),
+                result.categoryCounts(),
+                result.priceBuckets()
+        );
+    }
+
+    @Transactional
     public ProductResponseDTO createProduct(ProductRequestDTO requestDTO) {
         log.info("Creating new product: {}", requestDTO.getName());
 
@@ -69,7 +169,8 @@ public class ProductService {
 
         String normalizedProductName = requestDTO.getName().trim();
 
-        if (productRepository.existsByNameIgnoreCase(normalizedProductName)) {
+        // The filter rules out most new names without touching the table
+        if (productNameFilter.mightContain(normalizedProductName) && productRepository.existsByNameIgnoreCase(normalizedProductName)) {
             log.error("Product with name: {} already exists", normalizedProductName);
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product with this name already exists");
         }
@@ -84,10 +185,15 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
         log.info("Product created successfully with ID: {}", savedProduct.getProductId());
+        inventoryLedgerService.record(savedProduct.getProductId(), InventoryMovement.ADJUSTMENT, savedProduct.getStock(), savedProduct.getStock(), null);
 
-        return mapToResponseDTO(savedProduct);
+        ProductResponseDTO responseDTO = mapToResponseDTO(savedProduct);
+        productCache.putAfterCommit(responseDTO);
+        eventPublisher.publishEvent(new ProductChangedEvent(responseDTO));
+        return responseDTO;
     }
 
+    @Transactional
     public ProductResponseDTO updateProduct(UUID productId, ProductRequestDTO requestDTO) {
         log.info("Updating product with ID: {}", productId);
 
@@ -106,14 +212,29 @@ public class ProductService {
         product.setName(requestDTO.getName());
         product.setDescription(requestDTO.getDescription());
         product.setPrice(requestDTO.getPrice());
-        product.setStock(requestDTO.getStock());
+        // The version check on save makes sure no reservation slipped in between, so the recorded delta is exact
+        int stockDelta = 0;
+        if (product.getStockBuckets() == 0) {
+            stockDelta = requestDTO.getStock() - product.getStock();
+            product.setStock(requestDTO.getStock());
+        }
         product.setImageUrl(requestDTO.getImageUrl());
         product.setCategory(category);
 
         Product updatedProduct = productRepository.save(product);
         log.info("Product updated successfully with ID: {}", updatedProduct.getProductId());
+        if (stockDelta != 0) {
+            inventoryLedgerService.record(productId, InventoryMovement.ADJUSTMENT, Math.abs(stockDelta), stockDelta, null);
+        }
 
-        return mapToResponseDTO(updatedProduct);
+        ProductResponseDTO responseDTO = mapToResponseDTO(updatedProduct);
+        if (updatedProduct.getStockBuckets() > 0) {
+            // Sharded stock lives in the bucket rows and is spread over them again
+            responseDTO.setStock(inventoryService.replaceStock(productId, requestDTO.getStock()));
+        }
+        productCache.putAfterCommit(responseDTO);
+        eventPublisher.publishEvent(new ProductChangedEvent(responseDTO));
+        return responseDTO;
     }
 
     public void deleteProduct(UUID productId) {
@@ -125,16 +246,68 @@ public class ProductService {
         }
 
         productRepository.deleteById(productId);
+        productCache.evict(productId);
+        eventPublisher.publishEvent(new ProductDeletedEvent(productId));
         log.info("Product with ID {} deleted successfully", productId);
     }
 
+    // Serves what the read cache already holds and loads the rest with a single IN query, keeping the given order
+    private List<ProductResponseDTO> resolveProducts(List<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, ProductResponseDTO> productsById = new HashMap<>();
+        List<UUID> uncachedProductIds = new ArrayList<>();
+        for (UUID productId : productIds) {
+            ProductResponseDTO cached = productCache.getIfPresent(productId);
+            if (cached != null) {
+                productsById.put(productId, cached);
+            } else {
+                uncachedProductIds.add(productId);
+            }
+        }
+        if (!uncachedProductIds.isEmpty()) {
+            productRepository.findResponsesByIdIn(uncachedProductIds).forEach(responseDTO -> {
+                productCache.put(responseDTO);
+                productsById.put(responseDTO.getProductId(), responseDTO);
+            });
+        }
+
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private int boundedPageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
+    // One extra row is fetched to tell whether another page follows without a COUNT query
+    private CursorPageDTO<ProductResponseDTO> toPage(List<Product> products, int pageSize) {
+        boolean hasMore = products.size() > pageSize;
+        List<Product> pageContent = hasMore ? products.subList(0, pageSize) : products;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = pageContent.get(pageContent.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getProductId()).encode();
+        }
+
+        return new CursorPageDTO<>(
+                pageContent.stream().map(this::mapToResponseDTO).collect(Collectors.toList()),
+                nextCursor
+        );
+    }
+
     private ProductResponseDTO mapToResponseDTO(Product product) {
         return new ProductResponseDTO(
                 product.getProductId(),
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
-                product.getStock(),
+                product.availableStock(),
                 product.getImageUrl(),
                 product.getCategory().getCategoryId()
         );
@@ -0,0 +1,94 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.ReservationStatsDTO;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.reservation.ReservationTimer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives the stock of abandoned pending orders back. Every second the orders whose timers ran out are taken from the
+ * ReservationTimer and cancelled in batches, one transaction each; a failed batch is retried a minute later.
+ * <p>
+ * Each instance only holds timers for the orders it wrote since startup plus the pending orders it found on startup,
+ * the deadline stored with the order decides in the end.
+ */
+@Slf4j
+@Service
+public class ReservationExpiryService {
+
+    private static final long RETRY_DELAY_SECONDS = 60;
+
+    private final ReservationTimer reservationTimer;
+    private final InventoryService inventoryService;
+    private final OrderRepository orderRepository;
+    private final int batchSize;
+
+    private final LongAdder expiredOrders = new LongAdder();
+    private final LongAdder releasedUnits = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    public ReservationExpiryService(ReservationTimer reservationTimer, InventoryService inventoryService, OrderRepository orderRepository,
+                                    @Value("${commerce.reservations.expiry-batch-size:100}") int batchSize) {
+        this.reservationTimer = reservationTimer;
+        this.inventoryService = inventoryService;
+        this.orderRepository = orderRepository;
+        this.batchSize = batchSize;
+    }
+
+    // Orders without a stored deadline predate it and get one counted from their last change
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePendingOrders() {
+        List<OrderRepository.PendingReservation> pending = orderRepository.findPendingReservations();
+        for (OrderRepository.PendingReservation reservation : pending) {
+            LocalDateTime expiresAt = reservation.getReservationExpiresAt() != null
+                    ? reservation.getReservationExpiresAt()
+                    : reservation.getUpdatedAt().plus(reservationTimer.getTtl());
+            reservationTimer.schedule(reservation.getOrderId(), expiresAt);
+        }
+        log.info("Scheduled reservation expiry for {} pending orders", pending.size());
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void expireReservations() {
+        List<UUID> due = reservationTimer.pollExpired();
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // Sorted, so concurrent runs on several instances lock the order rows in the same sequence
+        List<UUID> orderIds = due.stream().sorted().toList();
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            List<UUID> batch = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+            try {
+                InventoryService.ExpiredReservations expired = inventoryService.expireOrders(batch, now);
+                expiredOrders.add(expired.orders());
+                releasedUnits.add(expired.units());
+            } catch (RuntimeException e) {
+                log.error("Expiring a batch of {} reservations failed, retrying in {}s", batch.size(), RETRY_DELAY_SECONDS, e);
+                failedBatches.increment();
+                batch.forEach(orderId -> reservationTimer.schedule(orderId, now.plusSeconds(RETRY_DELAY_SECONDS)));
+            }
+        }
+    }
+
+    public ReservationStatsDTO stats() {
+        return new ReservationStatsDTO(
+                reservationTimer.size(),
+                reservationTimer.getTtl().toSeconds(),
+                expiredOrders.sum(),
+                releasedUnits.sum(),
+                failedBatches.sum()
+        );
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.OrderAllocationDTO;
+import com.example.commerce.model.Order;
+import com.example.commerce.model.OrderAllocation;
+import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.repository.OrderAllocationRepository;
+import com.example.commerce.repository.OrderItemRepository;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.WarehouseStockRepository;
+import com.example.commerce.repository.WarehouseStockRepository.StockLevel;
+import com.example.commerce.warehouse.AllocationLine;
+import com.example.commerce.warehouse.AllocationPlanner;
+import com.example.commerce.warehouse.WarehouseSite;
+import com.example.commerce.warehouse.WarehouseStockIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Decides which warehouses ship the items of completed orders. Plans are made against the in-memory
+ * WarehouseStockIndex, closest warehouses first and with as few of them as possible, so allocating costs no reads of
+ * warehouse stock. The conditional UPDATEs applying a plan keep it exact: if one finds the units gone, the lines applied
+ * so far are given back, the products are refreshed from the database and the order is planned again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarehouseAllocationService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderAllocationRepository orderAllocationRepository;
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final WarehouseStockIndex warehouseStockIndex;
+
+    public List<OrderAllocationDTO> getAllocation(UUID orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            log.error("Order ID {} does not exist", orderId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+        }
+        return orderAllocationRepository.findByOrderIdOrderByWarehouseIdAscProductIdAsc(orderId).stream()
+                .map(allocation -> new OrderAllocationDTO(allocation.getWarehouseId(), allocation.getProductId(), allocation.getQuantity()))
+                .toList();
+    }
+
+    // The order row stays locked until commit, so a concurrent allocation of the same order waits and then finds it
+    // allocated, and a cancellation either waits for the allocation and releases it or is seen here as cancelled
+    @Transactional
+    public List<OrderAllocationDTO> allocate(UUID orderId) {
+        log.info("Allocating order ID: {} to warehouses", orderId);
+
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> {
+                    log.error("Order ID {} does not exist", orderId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+                });
+        if (order.getStatus() != OrderStatus.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Only completed orders can be allocated");
+        }
+        if (orderAllocationRepository.existsByOrderId(orderId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is already allocated");
+        }
+
+        Map<UUID, Integer> demand = new TreeMap<>();
+        orderItemRepository.findHeldQuantities(List.of(orderId))
+                .forEach(item -> demand.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        if (demand.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order has no items");
+        }
+
+        List<WarehouseSite> candidates = AllocationPlanner.byProximity(warehouseStockIndex.getWarehouses(), order.getCountry(), order.getState());
+        boolean refreshed = false;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Optional<List<AllocationLine>> plan = AllocationPlanner.plan(demand, candidates, warehouseStockIndex.stockOf(demand.keySet()));
+            if (plan.isPresent() && apply(plan.get())) {
+                return save(orderId, plan.get());
+            }
+            // The index may lag behind in either direction, only the database tells
+            if (plan.isEmpty() && refreshed) {
+                break;
+            }
+            warehouseStockIndex.refresh(demand.keySet());
+            refreshed = true;
+        }
+
+        log.error("Not enough warehouse stock to allocate order ID: {}", orderId);
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough warehouse stock to allocate order");
+    }
+
+    // Gives the units of a cancelled or deleted order back to the warehouses they were allocated from
+    @Transactional
+    public void releaseAllocation(UUID orderId) {
+        List<OrderAllocation> allocations = orderAllocationRepository.findByOrderIdOrderByWarehouseIdAscProductIdAsc(orderId);
+        if (allocations.isEmpty()) {
+            return;
+        }
+        log.info("Releasing warehouse allocation of order ID: {}", orderId);
+
+        List<StockLevel> levels = new ArrayList<>();
+        for (OrderAllocation allocation : allocations) {
+            warehouseStockRepository.incrementStock(allocation.getWarehouseId(), allocation.getProductId(), allocation.getQuantity());
+            warehouseStockRepository.findLevel(allocation.getWarehouseId(), allocation.getProductId()).ifPresent(levels::add);
+        }
+        orderAllocationRepository.deleteByOrderId(orderId);
+        warehouseStockIndex.updateAfterCommit(levels);
+    }
+
+    // Warehouse and product order, so concurrent allocations lock the rows in the same sequence
+    private boolean apply(List<AllocationLine> plan) {
+        List<AllocationLine> applied = new ArrayList<>();
+        for (AllocationLine line : sorted(plan)) {
+            if (warehouseStockRepository.decrementStock(line.warehouseId(), line.productId(), line.quantity()) == 0) {
+                log.warn("Warehouse ID: {} no longer holds {} units of product ID: {}", line.warehouseId(), line.quantity(), line.productId());
+                for (AllocationLine undo : applied) {
+                    warehouseStockRepository.restoreStock(undo.warehouseId(), undo.productId(), undo.quantity());
+                }
+                return false;
+            }
+            applied.add(line);
+        }
+        return true;
+    }
+
+    private List<OrderAllocationDTO> save(UUID orderId, List<AllocationLine> plan) {
+        List<OrderAllocation> allocations = new ArrayList<>();
+        List<StockLevel> levels = new ArrayList<>();
+        // Every allocation numbers its lines from 0, so the unique (order_id, line_number) key rejects a second one
+        for (AllocationLine line : sorted(plan)) {
+            allocations.add(new OrderAllocation(null, orderId, allocations.size(), line.warehouseId(), line.productId(), line.quantity(), null));
+            warehouseStockRepository.findLevel(line.warehouseId(), line.productId()).ifPresent(levels::add);
+        }
+        orderAllocationRepository.saveAll(allocations);
+        warehouseStockIndex.updateAfterCommit(levels);
+        log.info("Allocated order ID: {} to {} warehouses", orderId, plan.stream().map(AllocationLine::warehouseId).distinct().count());
+
+        return allocations.stream()
+                .map(allocation -> new OrderAllocationDTO(allocation.getWarehouseId(), allocation.getProductId(), allocation.getQuantity()))
+                .toList();
+    }
+
+    private static List<AllocationLine> sorted(List<AllocationLine> plan) {
+        return plan.stream()
+                .sorted(Comparator.comparing(AllocationLine::warehouseId).thenComparing(AllocationLine::productId))
+                .toList();
+    }
+}
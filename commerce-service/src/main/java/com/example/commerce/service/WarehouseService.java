@@ -0,0 +1,92 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.WarehouseRequestDTO;
+import com.example.commerce.dto.WarehouseResponseDTO;
+import com.example.commerce.dto.WarehouseStockDTO;
+import com.example.commerce.model.Warehouse;
+import com.example.commerce.model.WarehouseStock;
+import com.example.commerce.model.WarehouseStockId;
+import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.repository.WarehouseRepository;
+import com.example.commerce.repository.WarehouseStockRepository;
+import com.example.commerce.warehouse.WarehouseStockIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WarehouseService {
+
+    private final WarehouseRepository warehouseRepository;
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseStockIndex warehouseStockIndex;
+
+    public List<WarehouseResponseDTO> getAllWarehouses() {
+        log.info("Retrieving all warehouses");
+        return warehouseRepository.findAll().stream()
+                .map(this::mapToResponseDTO)
+                .toList();
+    }
+
+    public WarehouseResponseDTO createWarehouse(WarehouseRequestDTO requestDTO) {
+        log.info("Creating new warehouse with code: {}", requestDTO.getCode());
+
+        if (warehouseRepository.existsByCode(requestDTO.getCode())) {
+            log.error("Warehouse with code: {} already exists", requestDTO.getCode());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Warehouse with this code already exists");
+        }
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setCode(requestDTO.getCode());
+        warehouse.setName(requestDTO.getName());
+        warehouse.setCountry(requestDTO.getCountry());
+        warehouse.setState(requestDTO.getState());
+        warehouse.setPriority(requestDTO.getPriority());
+
+        Warehouse savedWarehouse = warehouseRepository.save(warehouse);
+        warehouseStockIndex.reloadWarehouses();
+        log.info("Warehouse '{}' created successfully with ID: {}", savedWarehouse.getCode(), savedWarehouse.getWarehouseId());
+
+        return mapToResponseDTO(savedWarehouse);
+    }
+
+    // Replaces the units of a product on hand in a warehouse, e.g. after a stock count or a delivery
+    @Transactional
+    public WarehouseStockDTO setStock(UUID warehouseId, UUID productId, int stock) {
+        log.info("Setting stock of product ID: {} in warehouse ID: {} to {}", productId, warehouseId, stock);
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock must not be negative");
+        }
+        if (!warehouseRepository.existsById(warehouseId)) {
+            log.error("Warehouse with ID: {} not found", warehouseId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Warehouse not found");
+        }
+        if (!productRepository.existsById(productId)) {
+            log.error("Product with ID: {} does not exist", productId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+
+        WarehouseStockId id = new WarehouseStockId(warehouseId, productId);
+        WarehouseStock warehouseStock = warehouseStockRepository.findById(id)
+                .orElseGet(() -> new WarehouseStock(id, 0, null, null));
+        warehouseStock.setStock(stock);
+        warehouseStockRepository.saveAndFlush(warehouseStock);
+        warehouseStockIndex.updateAfterCommit(List.of(warehouseStockRepository.findLevel(warehouseId, productId).orElseThrow()));
+
+        return new WarehouseStockDTO(warehouseId, productId, stock);
+    }
+
+    private WarehouseResponseDTO mapToResponseDTO(Warehouse warehouse) {
+        return new WarehouseResponseDTO(warehouse.getWarehouseId(), warehouse.getCode(), warehouse.getName(),
+                warehouse.getCountry(), warehouse.getState(), warehouse.getPriority(), warehouse.isActive());
+    }
+}
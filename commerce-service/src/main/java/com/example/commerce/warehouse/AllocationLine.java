@@ -0,0 +1,9 @@
+package com.example.commerce.warehouse;
+
+import java.util.UUID;
+
+/**
+ * Units of one product of an order that one warehouse ships.
+ */
+public record AllocationLine(UUID warehouseId, UUID productId, int quantity) {
+}
@@ -0,0 +1,88 @@
+package com.example.commerce.warehouse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Picks the warehouses an order ships from, as a greedy set cover: each round takes the warehouse that can ship the
+ * most of the units still open. An order that one warehouse can ship on its own is therefore never split, and a split
+ * order uses few warehouses. Ties go to the candidate that comes first, so candidates are passed closest first.
+ */
+public final class AllocationPlanner {
+
+    private AllocationPlanner() {
+    }
+
+    // Same state before same country before the rest, then by priority; the code keeps the order stable
+    public static List<WarehouseSite> byProximity(List<WarehouseSite> warehouses, String country, String state) {
+        Comparator<WarehouseSite> closestFirst = Comparator
+                .comparingInt((WarehouseSite warehouse) -> distance(warehouse, country, state))
+                .thenComparingInt(WarehouseSite::priority)
+                .thenComparing(WarehouseSite::code);
+        return warehouses.stream().sorted(closestFirst).toList();
+    }
+
+    // Empty if the warehouses together do not hold enough units of every product
+    public static Optional<List<AllocationLine>> plan(Map<UUID, Integer> demand, List<WarehouseSite> candidates,
+                                                      Map<UUID, Map<UUID, Integer>> stockByProduct) {
+        Map<UUID, Integer> open = new LinkedHashMap<>(demand);
+        Map<UUID, Map<UUID, Integer>> available = new HashMap<>();
+        stockByProduct.forEach((productId, stock) -> available.put(productId, new HashMap<>(stock)));
+
+        List<AllocationLine> lines = new ArrayList<>();
+        while (!open.isEmpty()) {
+            WarehouseSite best = null;
+            int bestUnits = 0;
+            for (WarehouseSite candidate : candidates) {
+                int units = 0;
+                for (Map.Entry<UUID, Integer> entry : open.entrySet()) {
+                    units += Math.min(entry.getValue(), stockOf(available, candidate.warehouseId(), entry.getKey()));
+                }
+                if (units > bestUnits) {
+                    best = candidate;
+                    bestUnits = units;
+                }
+            }
+            if (best == null) {
+                return Optional.empty();
+            }
+
+            UUID warehouseId = best.warehouseId();
+            Iterator<Map.Entry<UUID, Integer>> iterator = open.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, Integer> entry = iterator.next();
+                int taken = Math.min(entry.getValue(), stockOf(available, warehouseId, entry.getKey()));
+                if (taken == 0) {
+                    continue;
+                }
+                lines.add(new AllocationLine(warehouseId, entry.getKey(), taken));
+                available.get(entry.getKey()).merge(warehouseId, -taken, Integer::sum);
+                if (taken == entry.getValue()) {
+                    iterator.remove();
+                } else {
+                    entry.setValue(entry.getValue() - taken);
+                }
+            }
+        }
+        return Optional.of(lines);
+    }
+
+    private static int distance(WarehouseSite warehouse, String country, String state) {
+        if (country == null || !country.equalsIgnoreCase(warehouse.country())) {
+            return 2;
+        }
+        return state != null && state.equalsIgnoreCase(warehouse.state()) ? 0 : 1;
+    }
+
+    private static int stockOf(Map<UUID, Map<UUID, Integer>> available, UUID warehouseId, UUID productId) {
+        Map<UUID, Integer> stock = available.get(productId);
+        return stock != null ? Math.max(0, stock.getOrDefault(warehouseId, 0)) : 0;
+    }
+}
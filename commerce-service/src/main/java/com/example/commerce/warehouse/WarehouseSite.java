@@ -0,0 +1,9 @@
+package com.example.commerce.warehouse;
+
+import java.util.UUID;
+
+/**
+ * The parts of an active warehouse that allocation decisions look at.
+ */
+public record WarehouseSite(UUID warehouseId, String code, String country, String state, int priority) {
+}
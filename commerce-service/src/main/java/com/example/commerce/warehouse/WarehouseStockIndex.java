@@ -0,0 +1,108 @@
+package com.example.commerce.warehouse;
+
+import com.example.commerce.repository.WarehouseRepository;
+import com.example.commerce.repository.WarehouseStockRepository;
+import com.example.commerce.repository.WarehouseStockRepository.StockLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the active warehouses and their stock, which allocations are planned against without reading
+ * warehouse_stock. Every level carries the version of its row and only a newer version replaces it, so after-commit
+ * updates, refreshes after a failed allocation and the periodic reload may arrive in any order. The copy may still lag
+ * behind, e.g. behind writes of other instances, until the next refresh; the conditional UPDATEs applying a plan catch
+ * that.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarehouseStockIndex {
+
+    private final WarehouseRepository warehouseRepository;
+    private final WarehouseStockRepository warehouseStockRepository;
+
+    private volatile List<WarehouseSite> warehouses = List.of();
+    // Inner maps are immutable and replaced as a whole, so readers never see a half-applied update
+    private final Map<UUID, Map<UUID, Level>> levelsByProduct = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reloadWarehouses();
+        List<StockLevel> levels = warehouseStockRepository.findAllLevels();
+        levels.forEach(this::update);
+        log.info("Warehouse stock index loaded with {} warehouses and {} stock levels", warehouses.size(), levels.size());
+    }
+
+    // Catches up with changes this instance did not make itself
+    @Scheduled(fixedDelayString = "${commerce.warehouses.refresh-interval:PT1M}", initialDelayString = "${commerce.warehouses.refresh-interval:PT1M}")
+    public void reload() {
+        load();
+    }
+
+    public void reloadWarehouses() {
+        warehouses = warehouseRepository.findByActiveTrue().stream()
+                .map(warehouse -> new WarehouseSite(warehouse.getWarehouseId(), warehouse.getCode(),
+                        warehouse.getCountry(), warehouse.getState(), warehouse.getPriority()))
+                .toList();
+    }
+
+    public List<WarehouseSite> getWarehouses() {
+        return warehouses;
+    }
+
+    public Map<UUID, Map<UUID, Integer>> stockOf(Collection<UUID> productIds) {
+        Map<UUID, Map<UUID, Integer>> stock = new HashMap<>();
+        for (UUID productId : productIds) {
+            Map<UUID, Integer> byWarehouse = new HashMap<>();
+            levelsByProduct.getOrDefault(productId, Map.of()).forEach((warehouseId, level) -> byWarehouse.put(warehouseId, level.stock()));
+            stock.put(productId, byWarehouse);
+        }
+        return stock;
+    }
+
+    public void refresh(Collection<UUID> productIds) {
+        warehouseStockRepository.findLevelsByProductIds(productIds).forEach(this::update);
+    }
+
+    // Levels read back inside a transaction only become true once it commits
+    public void updateAfterCommit(List<StockLevel> levels) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            levels.forEach(this::update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                levels.forEach(WarehouseStockIndex.this::update);
+            }
+        });
+    }
+
+    public void update(StockLevel level) {
+        levelsByProduct.compute(level.getProductId(), (productId, current) -> {
+            Level known = current != null ? current.get(level.getWarehouseId()) : null;
+            if (known != null && known.version() >= level.getVersion()) {
+                return current;
+            }
+            Map<UUID, Level> next = current != null ? new HashMap<>(current) : new HashMap<>();
+            next.put(level.getWarehouseId(), new Level(level.getStock(), level.getVersion()));
+            return Map.copyOf(next);
+        });
+    }
+
+    private record Level(int stock, long version) {
+    }
+}
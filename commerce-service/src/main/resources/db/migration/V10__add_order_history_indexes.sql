@@ -0,0 +1,6 @@
+-- Keyset pagination of GET /api/orders/user/{userId}, newest first. Both indexes hand the rows over already in page
+-- order, so a page reads its rows and stops instead of sorting the whole history of the user
+CREATE INDEX idx_orders_user_status_created_at_id ON orders (user_id, status, created_at DESC, order_id DESC);
+
+-- Without a status filter the status column would sit between the user and the sort key
+CREATE INDEX idx_orders_user_created_at_id ON orders (user_id, created_at DESC, order_id DESC);
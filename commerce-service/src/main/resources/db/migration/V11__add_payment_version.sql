@@ -0,0 +1,2 @@
+-- Optimistic lock version of payments, so concurrent status updates cannot silently overwrite each other
+ALTER TABLE payments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,81 @@
+-- orders and order_items become range partitioned by the month of created_at. Queries bounded on created_at (later
+-- history pages, archival) only visit the partitions of the months they cover, and months emptied by the archival job
+-- can be dropped whole instead of being vacuumed row by row.
+--
+-- A unique key of a partitioned table has to contain the partition key, so order_id alone can no longer be the target
+-- of a foreign key. The references to orders are dropped and their ON DELETE CASCADE is kept by a trigger instead.
+
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS order_items_order_id_fkey;
+ALTER TABLE payments DROP CONSTRAINT IF EXISTS payments_order_id_fkey;
+ALTER TABLE order_allocations DROP CONSTRAINT IF EXISTS order_allocations_order_id_fkey;
+
+-- Creates the missing monthly partitions of a table from first_month through last_month, returns how many were created
+CREATE FUNCTION create_monthly_partitions(parent TEXT, first_month DATE, last_month DATE) RETURNS INT AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', first_month);
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE partition_start <= last_month LOOP
+        partition_name := parent || '_' || to_char(partition_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, partition_start, (partition_start + INTERVAL '1 month')::DATE);
+            created := created + 1;
+        END IF;
+        partition_start := (partition_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rows written before created_at was always set are placed by their last change
+UPDATE orders SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+UPDATE order_items SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+
+CREATE TABLE orders (LIKE orders_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (created_at);
+CREATE TABLE order_items (LIKE order_items_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (created_at);
+ALTER TABLE orders ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE order_items ALTER COLUMN created_at SET NOT NULL;
+
+-- Every month with data plus three ahead; the default partitions only catch rows of months the daily job has not
+-- created yet, see OrderRetentionService
+SELECT create_monthly_partitions('orders',
+                                 (SELECT COALESCE(MIN(created_at), CURRENT_TIMESTAMP) FROM orders_unpartitioned)::DATE,
+                                 (CURRENT_DATE + INTERVAL '3 months')::DATE);
+SELECT create_monthly_partitions('order_items',
+                                 (SELECT COALESCE(MIN(created_at), CURRENT_TIMESTAMP) FROM order_items_unpartitioned)::DATE,
+                                 (CURRENT_DATE + INTERVAL '3 months')::DATE);
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+INSERT INTO orders SELECT * FROM orders_unpartitioned;
+INSERT INTO order_items SELECT * FROM order_items_unpartitioned;
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+ALTER TABLE orders ADD PRIMARY KEY (order_id, created_at);
+ALTER TABLE orders ADD CONSTRAINT orders_user_id_fkey FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE;
+CREATE INDEX idx_orders_user_status_created_at_id ON orders (user_id, status, created_at DESC, order_id DESC);
+CREATE INDEX idx_orders_user_created_at_id ON orders (user_id, created_at DESC, order_id DESC);
+CREATE INDEX idx_orders_pending_reservation ON orders (reservation_expires_at) WHERE status = 'PENDING';
+
+ALTER TABLE order_items ADD PRIMARY KEY (order_item_id, created_at);
+ALTER TABLE order_items ADD CONSTRAINT order_items_product_id_fkey FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE;
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+
+-- What the dropped foreign keys did on delete, for orders deleted directly or through their user
+CREATE FUNCTION delete_order_dependents() RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM order_items WHERE order_id = OLD.order_id;
+    DELETE FROM payments WHERE order_id = OLD.order_id;
+    DELETE FROM order_allocations WHERE order_id = OLD.order_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER orders_delete_dependents AFTER DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION delete_order_dependents();
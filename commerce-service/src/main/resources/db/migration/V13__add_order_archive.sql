@@ -0,0 +1,25 @@
+-- Completed and cancelled orders past commerce.orders.archive-after, moved out of the partitioned tables. The columns of
+-- the order history stay plain, so archived pages are read without touching the payload
+CREATE TABLE order_archive (
+    order_id UUID PRIMARY KEY,
+    user_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    street VARCHAR(255),
+    city VARCHAR(100),
+    state VARCHAR(100),
+    country VARCHAR(100),
+    postal_code VARCHAR(20),
+    total_price DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL,
+    payload BYTEA NOT NULL -- Items and payment as gzip compressed JSON
+);
+
+-- Already compressed, so TOAST only moves it out of line instead of compressing it a second time
+ALTER TABLE order_archive ALTER COLUMN payload SET STORAGE EXTERNAL;
+
+-- Same keyset order as idx_orders_user_status_created_at_id and idx_orders_user_created_at_id on orders
+CREATE INDEX idx_order_archive_user_status_created_at_id ON order_archive (user_id, status, created_at DESC, order_id DESC);
+CREATE INDEX idx_order_archive_user_created_at_id ON order_archive (user_id, created_at DESC, order_id DESC);
@@ -0,0 +1,12 @@
+-- Lines of an allocation are numbered from 0, so a second allocation of the same order collides with the first on
+-- (order_id, line_number). The unique key leads with order_id and replaces idx_order_allocations_order
+ALTER TABLE order_allocations ADD COLUMN line_number INT;
+
+UPDATE order_allocations a SET line_number = numbered.line_number
+FROM (SELECT allocation_id, ROW_NUMBER() OVER (PARTITION BY order_id ORDER BY warehouse_id, product_id) - 1 AS line_number
+      FROM order_allocations) numbered
+WHERE a.allocation_id = numbered.allocation_id;
+
+ALTER TABLE order_allocations ALTER COLUMN line_number SET NOT NULL;
+ALTER TABLE order_allocations ADD CONSTRAINT order_allocations_order_id_line_number_key UNIQUE (order_id, line_number);
+DROP INDEX idx_order_allocations_order;
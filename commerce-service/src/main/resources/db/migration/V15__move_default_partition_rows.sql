@@ -0,0 +1,64 @@
+-- A month that reached the default partition before its own partition was created could never get one: CREATE TABLE
+-- ... PARTITION OF fails while the default partition holds rows of the new range. create_monthly_partitions now moves
+-- such rows into the partition it creates: the default partition is detached, the partition created, the rows copied
+-- through the parent and deleted from the detached table, and the default partition attached again. Months before
+-- first_month that have rows in the default partition are created as well, so a month the daily job missed is not
+-- stuck there once it is over.
+
+-- The rows are deleted only once their copies are in the new partition, so an order still present in orders is a
+-- moved one and keeps its items, payment and allocations
+CREATE OR REPLACE FUNCTION delete_order_dependents() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM orders WHERE order_id = OLD.order_id) THEN
+        RETURN OLD;
+    END IF;
+    DELETE FROM order_items WHERE order_id = OLD.order_id;
+    DELETE FROM payments WHERE order_id = OLD.order_id;
+    DELETE FROM order_allocations WHERE order_id = OLD.order_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, first_month DATE, last_month DATE) RETURNS INT AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', first_month);
+    partition_end DATE;
+    partition_name TEXT;
+    default_name TEXT := parent || '_default';
+    has_default BOOLEAN := to_regclass(parent || '_default') IS NOT NULL;
+    stranded BOOLEAN;
+    created INT := 0;
+BEGIN
+    IF has_default THEN
+        EXECUTE format('SELECT LEAST(%L, date_trunc(''month'', MIN(created_at))::DATE) FROM %I', partition_start, default_name)
+            INTO partition_start;
+    END IF;
+    WHILE partition_start <= last_month LOOP
+        partition_end := (partition_start + INTERVAL '1 month')::DATE;
+        partition_name := parent || '_' || to_char(partition_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            stranded := FALSE;
+            IF has_default THEN
+                EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE created_at >= %L AND created_at < %L)',
+                               default_name, partition_start, partition_end) INTO stranded;
+            END IF;
+            IF stranded THEN
+                EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, default_name);
+            END IF;
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, partition_start, partition_end);
+            IF stranded THEN
+                EXECUTE format('INSERT INTO %I SELECT * FROM %I WHERE created_at >= %L AND created_at < %L',
+                               parent, default_name, partition_start, partition_end);
+                EXECUTE format('DELETE FROM %I WHERE created_at >= %L AND created_at < %L',
+                               default_name, partition_start, partition_end);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent, default_name);
+                RAISE NOTICE 'Moved rows of % from % into %', partition_start, default_name, partition_name;
+            END IF;
+            created := created + 1;
+        END IF;
+        partition_start := partition_end;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,5 @@
+-- Keyset pagination for GET /api/products orders by (created_at, product_id)
+CREATE INDEX idx_products_created_at_id ON products (created_at, product_id);
+
+-- Keyset pagination for GET /api/products/category/{categoryId}
+CREATE INDEX idx_products_category_created_at_id ON products (category_id, created_at, product_id);
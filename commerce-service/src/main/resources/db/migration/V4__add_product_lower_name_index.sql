@@ -0,0 +1,2 @@
+-- Duplicate name checks compare LOWER(name), see ProductRepository.existsByNameIgnoreCase and findExistingLowerCaseNames
+CREATE INDEX idx_products_lower_name ON products (LOWER(name));
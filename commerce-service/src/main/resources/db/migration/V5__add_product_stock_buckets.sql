@@ -0,0 +1,12 @@
+-- Sharded inventory for flash-sale products: while stock_buckets > 0 the stock of a product is spread over that many
+-- bucket rows and products.stock stays at zero, so concurrent reservations lock different rows
+ALTER TABLE products ADD COLUMN stock_buckets INT NOT NULL DEFAULT 0;
+
+CREATE TABLE product_stock_buckets (
+    product_id UUID NOT NULL REFERENCES products(product_id) ON DELETE CASCADE,
+    bucket INT NOT NULL,
+    stock INT NOT NULL CHECK (stock >= 0),
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, bucket)
+);
@@ -0,0 +1,9 @@
+-- Deadline after which a pending order gives its reserved stock back and is cancelled
+ALTER TABLE orders ADD COLUMN reservation_expires_at TIMESTAMP;
+
+-- Only read on startup, to rebuild the in-memory expiry timers of the pending orders
+CREATE INDEX idx_orders_pending_reservation ON orders (reservation_expires_at) WHERE status = 'PENDING';
+
+-- The status check predates the OrderStatus enum and rejected COMPLETED and CANCELLED
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS orders_status_check;
+ALTER TABLE orders ADD CONSTRAINT orders_status_check CHECK (status IN ('PENDING', 'COMPLETED', 'CANCELLED'));
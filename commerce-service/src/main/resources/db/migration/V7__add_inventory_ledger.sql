@@ -0,0 +1,30 @@
+-- Append-only record of every stock movement. Deliberately without a foreign key, entries outlive their product
+CREATE TABLE inventory_ledger (
+    entry_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    product_id UUID NOT NULL,
+    movement VARCHAR(20) NOT NULL CHECK (movement IN ('ADJUSTMENT', 'RESERVATION', 'RELEASE', 'SALE')),
+    quantity INT NOT NULL,
+    delta INT NOT NULL,
+    order_id UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_inventory_ledger_product_created ON inventory_ledger (product_id, created_at);
+
+-- Stock of a product as of covered_until: the ledger entries up to then, folded into a single number
+CREATE TABLE inventory_snapshots (
+    snapshot_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    product_id UUID NOT NULL,
+    stock INT NOT NULL,
+    covered_until TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_inventory_snapshots_product_covered ON inventory_snapshots (product_id, covered_until DESC);
+
+-- Opening snapshot, so the stock of existing products can be derived from the ledger from now on
+INSERT INTO inventory_snapshots (product_id, stock, covered_until)
+SELECT p.product_id,
+       p.stock + COALESCE((SELECT SUM(b.stock) FROM product_stock_buckets b WHERE b.product_id = p.product_id), 0),
+       CURRENT_TIMESTAMP
+FROM products p;
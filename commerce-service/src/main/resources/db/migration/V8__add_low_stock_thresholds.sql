@@ -0,0 +1,4 @@
+-- Stock level below which a product is reported as running low. NULL falls back to the category's threshold and then
+-- to the configured default
+ALTER TABLE products ADD COLUMN low_stock_threshold INT CHECK (low_stock_threshold >= 0);
+ALTER TABLE categories ADD COLUMN low_stock_threshold INT CHECK (low_stock_threshold >= 0);
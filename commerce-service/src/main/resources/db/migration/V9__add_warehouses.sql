@@ -0,0 +1,38 @@
+-- Warehouses orders are shipped from. Lower priority values are preferred among equally close warehouses
+CREATE TABLE warehouses (
+    warehouse_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    code VARCHAR(50) NOT NULL UNIQUE,
+    name VARCHAR(255) NOT NULL,
+    country VARCHAR(255) NOT NULL,
+    state VARCHAR(255),
+    priority INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Units of a product on hand in a warehouse and not yet allocated to an order
+CREATE TABLE warehouse_stock (
+    warehouse_id UUID NOT NULL REFERENCES warehouses(warehouse_id) ON DELETE CASCADE,
+    product_id UUID NOT NULL REFERENCES products(product_id) ON DELETE CASCADE,
+    stock INT NOT NULL CHECK (stock >= 0),
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (warehouse_id, product_id)
+);
+
+-- Refreshing the in-memory stock of a product after a failed allocation reads all of its warehouses
+CREATE INDEX idx_warehouse_stock_product ON warehouse_stock (product_id);
+
+-- Which warehouse ships how many units of each product of an order
+CREATE TABLE order_allocations (
+    allocation_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL REFERENCES orders(order_id) ON DELETE CASCADE,
+    warehouse_id UUID NOT NULL REFERENCES warehouses(warehouse_id),
+    product_id UUID NOT NULL,
+    quantity INT NOT NULL CHECK (quantity > 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_order_allocations_order ON order_allocations (order_id);
@@ -0,0 +1,83 @@
+package com.example.commerce.alert;
+
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.event.LowStockThresholdChangedEvent;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductStockChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockMonitorTest {
+
+    @Mock
+    private LowStockAlertStream alertStream;
+
+    private LowStockMonitor monitor;
+    private UUID categoryId;
+    private UUID productId;
+
+    @BeforeEach
+    void setup() {
+        monitor = new LowStockMonitor(null, null, alertStream, 5);
+        categoryId = UUID.randomUUID();
+        productId = UUID.randomUUID();
+        monitor.onProductChanged(new ProductChangedEvent(product(productId, 20)));
+    }
+
+    /**
+     * Test crossings of the threshold
+     * - Ensures that an alert is raised once when the stock falls below the threshold, not on every further change
+     * - Ensures that running out and coming back above the threshold are reported as well
+     */
+    @Test
+    void testStockChanges_AlertOnlyOnCrossings() {
+        monitor.onProductStockChanged(new ProductStockChangedEvent(productId, 6));
+        monitor.onProductStockChanged(new ProductStockChangedEvent(productId, 4));
+        monitor.onProductStockChanged(new ProductStockChangedEvent(productId, 2));
+        monitor.onProductStockChanged(new ProductStockChangedEvent(productId, 0));
+        monitor.onProductStockChanged(new ProductStockChangedEvent(productId, 10));
+
+        verify(alertStream, times(1)).publish(LowStockMonitor.LOW_STOCK, productId, categoryId, 4, 5);
+        verify(alertStream, times(1)).publish(LowStockMonitor.OUT_OF_STOCK, productId, categoryId, 0, 5);
+        verify(alertStream, times(1)).publish(LowStockMonitor.RESTOCKED, productId, categoryId, 10, 5);
+        verifyNoMoreInteractions(alertStream);
+    }
+
+    /**
+     * Test threshold fallbacks
+     * - Ensures that a category threshold applies at once to its products and a product threshold overrides it
+     */
+    @Test
+    void testThresholdChanged_CategoryThenProduct() {
+        monitor.onThresholdChanged(new LowStockThresholdChangedEvent(null, categoryId, 25));
+        monitor.onThresholdChanged(new LowStockThresholdChangedEvent(productId, null, 10));
+
+        verify(alertStream, times(1)).publish(LowStockMonitor.LOW_STOCK, productId, categoryId, 20, 25);
+        verify(alertStream, times(1)).publish(LowStockMonitor.RESTOCKED, productId, categoryId, 20, 10);
+        verifyNoMoreInteractions(alertStream);
+    }
+
+    /**
+     * Test stock changes of unknown products
+     * - Ensures that a stock change of a product that is not tracked is ignored
+     */
+    @Test
+    void testStockChanged_UnknownProductIgnored() {
+        monitor.onProductStockChanged(new ProductStockChangedEvent(UUID.randomUUID(), 0));
+
+        verifyNoInteractions(alertStream);
+    }
+
+    private ProductResponseDTO product(UUID id, int stock) {
+        return new ProductResponseDTO(id, "Headphones", "Wireless", new BigDecimal("79.00"), stock, "headphones.jpg", categoryId);
+    }
+}
@@ -9,9 +9,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.UUID;
 
@@ -61,6 +63,37 @@ public class CategoryControllerTest {
                         .andExpect(jsonPath("$.length()").value(2));
     }
 
+    /**
+     * Test conditional retrieval of all categories via API
+     * - Sends a GET request with the ETag of the previous response
+     * - Verifies that the response status is 304 Not Modified while nothing changed
+     * - Verifies that the full list is returned again after a category was added
+     */
+    @Test
+    void testGetAllCategories_NotModified() throws Exception {
+        Category category = new Category();
+        category.setName("Garden");
+        categoryRepository.save(category);
+
+        MvcResult first = mockMvc.perform(get("/api/categories"))
+                        .andExpect(status().isOk())
+                        .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/categories")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isNotModified());
+
+        Category added = new Category();
+        added.setName("Tools");
+        categoryRepository.save(added);
+
+        mockMvc.perform(get("/api/categories")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(2));
+    }
+
     /**
      * Test retrieving a category by ID via API
      * - Saves a category in the repository
@@ -1,12 +1,13 @@
 package com.example.commerce.controller;
 
+import com.example.commerce.dto.BulkOrderStatusRequestDTO;
 import com.example.commerce.dto.OrderRequestDTO;
-import com.example.commerce.model.Order;
-import com.example.commerce.model.User;
+import com.example.commerce.model.*;
 import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.model.enums.PaymentMethod;
+import com.example.commerce.model.enums.PaymentStatus;
 import com.example.commerce.model.enums.Role;
-import com.example.commerce.repository.OrderRepository;
-import com.example.commerce.repository.UserRepository;
+import com.example.commerce.repository.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,9 +22,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -42,6 +46,18 @@ public class OrderControllerTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -92,13 +108,70 @@ public class OrderControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetOrderDetail_Success() throws Exception {
+        Category category = new Category();
+        category.setName("Electronics");
+        categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setName("Laptop");
+        product.setDescription("A very good laptop");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("125.00"));
+        product.setStock(10);
+        product.setImageUrl("ExampleURL_Laptop");
+        productRepository.save(product);
+
+        OrderItem item = new OrderItem();
+        item.setOrder(testOrder);
+        item.setProduct(product);
+        item.setQuantity(2);
+        item.setPrice(new BigDecimal("125.00"));
+        orderItemRepository.save(item);
+
+        Payment payment = new Payment();
+        payment.setOrder(testOrder);
+        payment.setAmount(new BigDecimal("250.00"));
+        payment.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        payment.setStatus(PaymentStatus.PENDING);
+        paymentRepository.save(payment);
+
+        mockMvc.perform(get("/api/orders/{orderId}/full", testOrder.getOrderId())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.order.orderId").value(testOrder.getOrderId().toString()))
+                .andExpect(jsonPath("$.items.size()").value(1))
+                .andExpect(jsonPath("$.items[0].productName").value("Laptop"))
+                .andExpect(jsonPath("$.items[0].lineTotal").value(250.00))
+                .andExpect(jsonPath("$.payment.status").value("PENDING"));
+    }
+
+    @Test
+    void testGetOrderDetail_WithoutItemsOrPayment() throws Exception {
+        mockMvc.perform(get("/api/orders/{orderId}/full", testOrder.getOrderId())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.order.status").value("PENDING"))
+                .andExpect(jsonPath("$.items.size()").value(0))
+                .andExpect(jsonPath("$.payment").doesNotExist());
+    }
+
+    @Test
+    void testGetOrderDetail_NotFound() throws Exception {
+        mockMvc.perform(get("/api/orders/{orderId}/full", UUID.randomUUID())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetOrdersForUser_Success() throws Exception {
         mockMvc.perform(get("/api/orders/user/{userId}", testUser.getUserId())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(1))
-                .andExpect(jsonPath("$[0].totalPrice").value(250.00));
+                .andExpect(jsonPath("$.items.size()").value(1))
+                .andExpect(jsonPath("$.items[0].totalPrice").value(250.00))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -116,6 +189,48 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.street").value("Hauptstraße 10"));
     }
 
+    @Test
+    void testCreateOrder_IdempotentRetry() throws Exception {
+        OrderRequestDTO requestDTO = new OrderRequestDTO(
+                testUser.getUserId(),
+                "Hauptstraße 10", "Berlin", "Berlin", "Germany", "10115",
+                null, "PENDING"
+        );
+        String content = objectMapper.writeValueAsString(requestDTO);
+
+        String first = mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "checkout-attempt-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String orderId = objectMapper.readTree(first).get("orderId").asText();
+
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "checkout-attempt-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.orderId").value(orderId));
+
+        assertEquals(2, orderRepository.findByUserUserId(testUser.getUserId()).size());
+    }
+
+    @Test
+    void testCreateOrder_CompletedStatusRejected() throws Exception {
+        OrderRequestDTO requestDTO = new OrderRequestDTO(
+                testUser.getUserId(),
+                "Hauptstraße 10", "Berlin", "Berlin", "Germany", "10115",
+                null, "COMPLETED"
+        );
+
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testCreateOrder_ValidationError() throws Exception {
         OrderRequestDTO requestDTO = new OrderRequestDTO(
@@ -139,6 +254,27 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.status").value("COMPLETED"));
     }
 
+    @Test
+    void testUpdateOrderStatuses_Bulk() throws Exception {
+        UUID missingOrderId = UUID.randomUUID();
+        BulkOrderStatusRequestDTO requestDTO = new BulkOrderStatusRequestDTO(
+                List.of(testOrder.getOrderId(), missingOrderId), OrderStatus.COMPLETED);
+
+        mockMvc.perform(put("/api/orders/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$.results[0].previousStatus").value("PENDING"))
+                .andExpect(jsonPath("$.results[1].orderId").value(missingOrderId.toString()))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/orders/{orderId}", testOrder.getOrderId())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
     @Test
     void testDeleteOrder_Success() throws Exception {
         mockMvc.perform(delete("/api/orders/{orderId}", testOrder.getOrderId())
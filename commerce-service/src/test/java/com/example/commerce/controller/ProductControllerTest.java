@@ -6,19 +6,31 @@ import com.example.commerce.model.Product;
 import com.example.commerce.repository.CategoryRepository;
 import com.example.commerce.repository.ProductRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -51,6 +63,18 @@ public class ProductControllerTest {
         category = categoryRepository.save(category);
     }
 
+    // Tests that had to commit, see commit(), remove their products through the API so the indexes forget them too
+    @AfterEach
+    void cleanup() throws Exception {
+        if (TestTransaction.isActive()) {
+            return;
+        }
+        for (Product product : productRepository.findByCategory_CategoryId(category.getCategoryId())) {
+            mockMvc.perform(delete("/api/products/" + product.getProductId())).andExpect(status().isNoContent());
+        }
+        categoryRepository.deleteById(category.getCategoryId());
+    }
+
     /**
      * Test retrieving all products via API
      * - Ensures that the GET /api/products endpoint returns the correct number of products
@@ -79,9 +103,60 @@ public class ProductControllerTest {
         mockMvc.perform(get("/api/products")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].name").value("Laptop"))
-                .andExpect(jsonPath("$[1].name").value("Phone"));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Laptop"))
+                .andExpect(jsonPath("$.items[1].name").value("Phone"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Test keyset pagination via API
+     * - Ensures that the continuation token returned with a page resumes right after its last product
+     */
+    @Test
+    void testGetAllProducts_Paginated() throws Exception {
+        for (String name : List.of("Keyboard", "Monitor", "Webcam")) {
+            Product product = new Product();
+            product.setName(name);
+            product.setDescription("Office equipment");
+            product.setCategory(category);
+            product.setPrice(new BigDecimal("99.00"));
+            product.setStock(3);
+            product.setImageUrl(name.toLowerCase() + ".jpg");
+            productRepository.save(product);
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/products")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+
+        String firstPageBody = firstPage.getResponse().getContentAsString();
+        String nextCursor = JsonPath.read(firstPageBody, "$.nextCursor");
+
+        MvcResult secondPage = mockMvc.perform(get("/api/products")
+                        .param("size", "2")
+                        .param("cursor", nextCursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andReturn();
+
+        List<String> names = new ArrayList<>(JsonPath.read(firstPageBody, "$.items[*].name"));
+        names.addAll(JsonPath.read(secondPage.getResponse().getContentAsString(), "$.items[*].name"));
+        assertEquals(Set.of("Keyboard", "Monitor", "Webcam"), new HashSet<>(names));
+    }
+
+    @Test
+    void testGetAllProducts_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/products")
+                        .param("cursor", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     /**
@@ -102,8 +177,226 @@ public class ProductControllerTest {
         mockMvc.perform(get("/api/products/category/" + category.getCategoryId())
                         .contentType(MediaType.APPLICATION_JSON))
                         .andExpect(status().isOk())
-                        .andExpect(jsonPath("$.length()").value(1))
-                        .andExpect(jsonPath("$[0].name").value("Smartwatch"));
+                        .andExpect(jsonPath("$.items.length()").value(1))
+                        .andExpect(jsonPath("$.items[0].name").value("Smartwatch"));
+    }
+
+    /**
+     * Test full-text product search via API
+     * - Ensures that products created through the API are searchable and ranked by relevance
+     */
+    @Test
+    void testSearchProducts_Success() throws Exception {
+        ProductRequestDTO headphones = new ProductRequestDTO(
+                "Studio Headphones",
+                "Closed-back headphones for mixing",
+                new BigDecimal("199.00"),
+                4,
+                "headphones.jpg",
+                category.getCategoryId()
+        );
+        ProductRequestDTO speaker = new ProductRequestDTO(
+                "Bluetooth Speaker",
+                "Portable speaker, pairs with headphones",
+                new BigDecimal("89.00"),
+                12,
+                "speaker.jpg",
+                category.getCategoryId()
+        );
+
+        for (ProductRequestDTO requestDTO : List.of(speaker, headphones)) {
+            mockMvc.perform(post("/api/products")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated());
+        }
+
+        commit();
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "headphones")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Studio Headphones"))
+                .andExpect(jsonPath("$[1].name").value("Bluetooth Speaker"));
+    }
+
+    /**
+     * Test product name autocomplete via API
+     * - Ensures that a name prefix and an inner word prefix both suggest the product
+     */
+    @Test
+    void testSuggestProducts_Success() throws Exception {
+        ProductRequestDTO requestDTO = new ProductRequestDTO(
+                "Mechanical Keyboard",
+                "Hot-swappable switches",
+                new BigDecimal("149.00"),
+                6,
+                "keyboard.jpg",
+                category.getCategoryId()
+        );
+
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated());
+
+        commit();
+
+        mockMvc.perform(get("/api/products/suggest")
+                        .param("q", "Mecha")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Mechanical Keyboard"));
+
+        mockMvc.perform(get("/api/products/suggest")
+                        .param("q", "keyb")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Mechanical Keyboard"));
+    }
+
+    /**
+     * Test faceted product filtering via API
+     * - Ensures that the filter endpoint applies the predicates and returns facet counts
+     */
+    @Test
+    void testFilterProducts_Success() throws Exception {
+        ProductRequestDTO inStock = new ProductRequestDTO(
+                "Desk Lamp", "LED desk lamp", new BigDecimal("40.00"), 3, "lamp.jpg", category.getCategoryId());
+        ProductRequestDTO soldOut = new ProductRequestDTO(
+                "Floor Lamp", "Standing lamp", new BigDecimal("45.00"), 0, "floor-lamp.jpg", category.getCategoryId());
+
+        for (ProductRequestDTO requestDTO : List.of(inStock, soldOut)) {
+            mockMvc.perform(post("/api/products")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated());
+        }
+
+        commit();
+
+        mockMvc.perform(get("/api/products/filter")
+                        .param("categoryId", category.getCategoryId().toString())
+                        .param("minPrice", "30")
+                        .param("maxPrice", "50")
+                        .param("inStock", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Desk Lamp"))
+                .andExpect(jsonPath("$.categoryCounts['" + category.getCategoryId() + "']").value(1));
+    }
+
+    @Test
+    void testFilterProducts_InvalidPriceRange() throws Exception {
+        mockMvc.perform(get("/api/products/filter")
+                        .param("minPrice", "50")
+                        .param("maxPrice", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test streaming catalog export via API
+     * - Ensures that the export endpoint writes one JSON document per line for NDJSON and an escaped CSV otherwise
+     */
+    @Test
+    void testExportProducts_Success() throws Exception {
+        Product product = new Product();
+        product.setName("Desk, Oak");
+        product.setDescription("Solid \"oak\" desk");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("349.90"));
+        product.setStock(2);
+        product.setImageUrl("desk.jpg");
+        product = productRepository.save(product);
+
+        MvcResult ndjson = mockMvc.perform(get("/api/products/export")
+                        .param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("application/x-ndjson;charset=UTF-8", ndjson.getResponse().getContentType());
+        String[] lines = ndjson.getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        assertEquals(product.getProductId().toString(), JsonPath.read(lines[0], "$.productId"));
+        assertEquals("Desk, Oak", JsonPath.read(lines[0], "$.name"));
+
+        MvcResult csv = mockMvc.perform(get("/api/products/export")
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("productId,name,description,price,stock,imageUrl,categoryId\n"
+                        + product.getProductId() + ",\"Desk, Oak\",\"Solid \"\"oak\"\" desk\",349.90,2,desk.jpg,"
+                        + category.getCategoryId() + "\n",
+                csv.getResponse().getContentAsString());
+    }
+
+    /**
+     * Test bulk product import from a JSON array via API
+     * - Ensures that valid rows are inserted and that duplicate names, unknown categories and invalid rows are reported per row
+     */
+    @Test
+    void testImportProducts_Json() throws Exception {
+        Product existing = new Product();
+        existing.setName("Monitor");
+        existing.setDescription("27 inch monitor");
+        existing.setCategory(category);
+        existing.setPrice(new BigDecimal("299.00"));
+        existing.setStock(4);
+        existing.setImageUrl("monitor.jpg");
+        productRepository.save(existing);
+
+        List<ProductRequestDTO> requestDTOs = List.of(
+                new ProductRequestDTO("Keyboard", "Mechanical keyboard", new BigDecimal("89.00"), 12, "keyboard.jpg", category.getCategoryId()),
+                new ProductRequestDTO(" monitor ", "Another monitor", new BigDecimal("199.00"), 3, "monitor2.jpg", category.getCategoryId()),
+                new ProductRequestDTO("Mouse", "Wireless mouse", new BigDecimal("25.00"), 30, "mouse.jpg", UUID.randomUUID()),
+                new ProductRequestDTO("KEYBOARD", "Same keyboard again", new BigDecimal("89.00"), 12, "keyboard.jpg", category.getCategoryId()),
+                new ProductRequestDTO("Webcam", "HD webcam", new BigDecimal("-1.00"), 5, "webcam.jpg", category.getCategoryId())
+        );
+
+        mockMvc.perform(post("/api/products/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(5))
+                .andExpect(jsonPath("$.importedCount").value(1))
+                .andExpect(jsonPath("$.errors.length()").value(4))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Product with this name already exists"))
+                .andExpect(jsonPath("$.errors[1].row").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("Category not found"))
+                .andExpect(jsonPath("$.errors[2].row").value(4))
+                .andExpect(jsonPath("$.errors[2].message").value("Product with this name already exists"))
+                .andExpect(jsonPath("$.errors[3].row").value(5))
+                .andExpect(jsonPath("$.errors[3].message").value("Price must be greater than 0"));
+
+        assertEquals(2, productRepository.count());
+    }
+
+    /**
+     * Test bulk product import from a CSV upload via API
+     * - Ensures that quoted fields are parsed and that unparsable rows are reported without failing the import
+     */
+    @Test
+    void testImportProducts_Csv() throws Exception {
+        String csv = "name,description,price,stock,imageUrl,categoryId\n"
+                + "\"Desk, Oak\",\"Solid \"\"oak\"\" desk\",349.90,2,desk.jpg," + category.getCategoryId() + "\n"
+                + "Chair,Office chair,abc,5,chair.jpg," + category.getCategoryId() + "\n";
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/products/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(2))
+                .andExpect(jsonPath("$.importedCount").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Invalid price: abc"));
+
+        List<Product> products = productRepository.findByCategory_CategoryId(category.getCategoryId());
+        assertEquals(1, products.size());
+        assertEquals("Desk, Oak", products.get(0).getName());
+        assertEquals("Solid \"oak\" desk", products.get(0).getDescription());
     }
 
     @Test
@@ -196,6 +489,50 @@ public class ProductControllerTest {
                         .andExpect(jsonPath("$.imageUrl").value("ExampleURL_WashingMachine_Updated"));
     }
 
+    /**
+     * Test conditional product retrieval via API
+     * - Ensures that a client holding the current ETag gets 304 and that an update makes the full response come back
+     */
+    @Test
+    void testGetProductById_NotModified() throws Exception {
+        Product product = new Product();
+        product.setName("Blender");
+        product.setDescription("Kitchen blender");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("60.00"));
+        product.setStock(9);
+        product.setImageUrl("ExampleURL_Blender");
+        product = productRepository.save(product);
+
+        MvcResult first = mockMvc.perform(get("/api/products/" + product.getProductId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Blender"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products/" + product.getProductId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        ProductRequestDTO updateRequest = new ProductRequestDTO(
+                "Blender",
+                "Kitchen blender",
+                new BigDecimal("55.00"),
+                9,
+                "ExampleURL_Blender",
+                category.getCategoryId()
+        );
+        mockMvc.perform(put("/api/products/" + product.getProductId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + product.getProductId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(55.00));
+    }
+
     /**
      * Test product deletion
      * - Ensures that a product can be successfully deleted and is no longer retrievable
@@ -219,4 +556,10 @@ public class ProductControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
+
+    // The search, suggestion and facet indexes only pick up products once their transaction has committed
+    private void commit() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
 }
@@ -5,6 +5,7 @@ import com.example.commerce.model.User;
 import com.example.commerce.model.enums.Role;
 import com.example.commerce.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,6 +52,12 @@ public class UserControllerIntegrationTest {
         userRepository.save(testUser);
     }
 
+    // Not transactional, so the users are committed; other test classes reuse the fixture email
+    @AfterEach
+    void cleanup() {
+        userRepository.deleteAll();
+    }
+
     /**
      * Test fetching all users when database is empty
      * - Expects empty JSON array in response
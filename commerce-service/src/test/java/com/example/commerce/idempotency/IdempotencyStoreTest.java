@@ -0,0 +1,114 @@
+package com.example.commerce.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+    /**
+     * Test replaying a stored response
+     * - Ensures that a repeated request gets the first response, marked as replayed, without running again
+     * - Ensures that keys are scoped by their owner
+     */
+    @Test
+    void testExecute_ReplaysFirstResponse() {
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<Integer> first = store.execute("createOrder", "user-1", "key", "request",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(runs.incrementAndGet()));
+        ResponseEntity<Integer> retry = store.execute("createOrder", "user-1", "key", "request",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(runs.incrementAndGet()));
+        ResponseEntity<Integer> otherUser = store.execute("createOrder", "user-2", "key", "request",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(runs.incrementAndGet()));
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(2, otherUser.getBody());
+        assertEquals(2, runs.get());
+    }
+
+    /**
+     * Test reusing a key for a different request
+     * - Ensures that it is rejected with 422 instead of replaying an unrelated response
+     */
+    @Test
+    void testExecute_DifferentRequestRejected() {
+        store.execute("createOrder", "user-1", "key", "request", () -> ResponseEntity.ok("first"));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> store.execute("createOrder", "user-1", "key", "other request", () -> ResponseEntity.ok("second")));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+    }
+
+    /**
+     * Test failed requests
+     * - Ensures that a failure is not stored, so a retry with the same key runs again
+     */
+    @Test
+    void testExecute_FailureNotStored() {
+        assertThrows(IllegalStateException.class, () -> store.execute("createPayment", "order-1", "key", "request", () -> {
+            throw new IllegalStateException("gateway down");
+        }));
+
+        ResponseEntity<String> retry = store.execute("createPayment", "order-1", "key", "request", () -> ResponseEntity.ok("paid"));
+
+        assertEquals("paid", retry.getBody());
+        assertNull(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    /**
+     * Test a duplicate arriving while the original request still runs
+     * - Ensures that the duplicate waits for the original response instead of running a second time
+     */
+    @Test
+    void testExecute_ConcurrentDuplicateWaits() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<Integer>> original = executor.submit(() -> store.execute("createOrder", "user-1", "key", "request", () -> {
+                started.countDown();
+                await(release);
+                return ResponseEntity.ok(runs.incrementAndGet());
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<Integer>> duplicate = executor.submit(() -> store.execute("createOrder", "user-1", "key", "request",
+                    () -> ResponseEntity.ok(runs.incrementAndGet())));
+
+            Thread.sleep(100);
+            assertFalse(duplicate.isDone());
+            release.countDown();
+
+            assertEquals(1, original.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, duplicate.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
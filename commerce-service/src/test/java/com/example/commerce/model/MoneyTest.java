@@ -0,0 +1,43 @@
+package com.example.commerce.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    /**
+     * Test conversion at the persistence boundary
+     * - Ensures that amounts are rounded half up to whole cents and come back with the scale of the DECIMAL(10,2) columns
+     */
+    @Test
+    void testOf_RoundsToCents() {
+        assertEquals(1999, Money.of(new BigDecimal("19.99")).cents());
+        assertEquals(2000, Money.of(new BigDecimal("19.995")).cents());
+        assertEquals(new BigDecimal("5.00"), Money.of(new BigDecimal("5")).toBigDecimal());
+    }
+
+    /**
+     * Test line and order totals
+     * - Ensures that price times quantity and sums of lines match the BigDecimal arithmetic exactly
+     */
+    @Test
+    void testArithmetic_MatchesBigDecimal() {
+        Money line = Money.of(new BigDecimal("0.10")).times(3);
+        Money total = line.plus(Money.of(new BigDecimal("999.99"))).minus(Money.of(new BigDecimal("0.05")));
+
+        assertEquals(new BigDecimal("0.30"), line.toBigDecimal());
+        assertEquals(new BigDecimal("1000.24"), total.toBigDecimal());
+    }
+
+    /**
+     * Test overflow
+     * - Ensures that a total beyond the range of a long fails instead of wrapping around
+     */
+    @Test
+    void testTimes_Overflow() {
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MAX_VALUE / 2).times(3));
+    }
+}
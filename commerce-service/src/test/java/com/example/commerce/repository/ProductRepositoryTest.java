@@ -5,6 +5,7 @@ import com.example.commerce.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -86,4 +87,37 @@ public class ProductRepositoryTest {
         boolean notExists = productRepository.existsByNameIgnoreCase("NonExistentProduct");
         assertFalse(notExists);
     }
+
+    /**
+     * Test keyset page retrieval
+     * - Ensures that a page resumed after a (created_at, product_id) position skips everything up to and including it
+     */
+    @Test
+    void testFindPageAfter() {
+        Category category = new Category();
+        category.setName("Electronics");
+        categoryRepository.save(category);
+
+        for (String name : List.of("Camera", "Drone", "Speaker")) {
+            Product product = new Product();
+            product.setName(name);
+            product.setDescription("A very good " + name.toLowerCase());
+            product.setCategory(category);
+            product.setPrice(new BigDecimal("300.00"));
+            product.setStock(4);
+            product.setImageUrl("ExampleURL_" + name);
+            productRepository.save(product);
+        }
+
+        List<Product> firstPage = productRepository.findFirstPage(Limit.of(2));
+        assertEquals(2, firstPage.size());
+
+        Product last = firstPage.get(1);
+        List<Product> secondPage = productRepository.findPageAfter(last.getCreatedAt(), last.getProductId(), Limit.of(2));
+        assertEquals(1, secondPage.size());
+        assertFalse(firstPage.contains(secondPage.get(0)));
+
+        List<Product> categoryPage = productRepository.findPageAfterByCategory(category.getCategoryId(), last.getCreatedAt(), last.getProductId(), Limit.of(2));
+        assertEquals(1, categoryPage.size());
+    }
 }
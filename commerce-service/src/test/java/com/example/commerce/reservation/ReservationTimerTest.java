@@ -0,0 +1,57 @@
+package com.example.commerce.reservation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationTimerTest {
+
+    private final ReservationTimer timer = new ReservationTimer(Duration.ofMinutes(30));
+    private final UUID orderId = UUID.randomUUID();
+
+    @AfterEach
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Test cancelling on rollback
+     * - Ensures that the timer of an order is kept when the transaction that moved it out of pending rolls back
+     */
+    @Test
+    void testCancelAfterCommit_KeptOnRollback() {
+        timer.schedule(orderId, timer.nextDeadline());
+        TransactionSynchronizationManager.initSynchronization();
+
+        timer.cancelAfterCommit(List.of(orderId));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(1, timer.size());
+    }
+
+    /**
+     * Test cancelling on commit
+     * - Ensures that the timer of an order is cancelled once the transaction commits, and not before
+     */
+    @Test
+    void testCancelAfterCommit_CancelledOnCommit() {
+        timer.schedule(orderId, timer.nextDeadline());
+        TransactionSynchronizationManager.initSynchronization();
+
+        timer.cancelAfterCommit(List.of(orderId));
+        assertEquals(1, timer.size());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(0, timer.size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.commerce.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    /**
+     * Test expiry at the deadline
+     * - Ensures that a timer fires on the first tick at or after its deadline and not a tick earlier
+     */
+    @Test
+    void testAdvance_FiresAtDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 0);
+        wheel.schedule("order", 55);
+
+        assertEquals(List.of(), wheel.advance(50));
+        assertEquals(List.of("order"), wheel.advance(60));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Test rescheduling and cancelling
+     * - Ensures that scheduling a key again replaces its earlier deadline
+     * - Ensures that a cancelled timer never fires
+     */
+    @Test
+    void testScheduleAndCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 0);
+        wheel.schedule("extended", 30);
+        wheel.schedule("cancelled", 30);
+        wheel.schedule("extended", 300);
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("unknown"));
+
+        assertEquals(List.of(), wheel.advance(290));
+        assertEquals(List.of("extended"), wheel.advance(300));
+    }
+
+    /**
+     * Test deadlines in the past
+     * - Ensures that an overdue timer fires on the next tick
+     */
+    @Test
+    void testSchedule_OverdueFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 1000);
+        wheel.schedule("overdue", 10);
+
+        assertEquals(List.of("overdue"), wheel.advance(1010));
+    }
+
+    /**
+     * Test timers beyond the range of the wheel
+     * - 4 slots on 3 levels cover 64 ticks; the deadline lies far beyond and is placed again until it is in range
+     * - Ensures that such a timer still fires exactly at its deadline
+     */
+    @Test
+    void testAdvance_DeadlineBeyondRange() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 0);
+        wheel.schedule("far", 12_340);
+
+        assertEquals(List.of(), wheel.advance(12_330));
+        assertEquals(List.of("far"), wheel.advance(12_340));
+    }
+
+    /**
+     * Test many timers against their deadlines
+     * - Random timers across all levels, with the clock moving in uneven steps
+     * - Ensures that every timer fires within the tick of its deadline, never before it and never later
+     */
+    @Test
+    void testAdvance_RandomTimersFireOnTime() {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 3, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 10 + random.nextInt(5_000);
+            wheel.schedule(i, deadline);
+            deadlines.put(i, deadline);
+        }
+
+        long now = 0;
+        while (!deadlines.isEmpty()) {
+            now += 1 + random.nextInt(25);
+            for (Integer key : wheel.advance(now)) {
+                long deadline = deadlines.remove(key);
+                assertTrue(deadline <= now, "fired before its deadline");
+                assertTrue(deadline > now - 35, "fired after the tick of its deadline");
+            }
+            long currentTickStart = now - now % 10;
+            deadlines.values().forEach(deadline -> assertTrue(deadline > currentTickStart, "missed its deadline"));
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.commerce.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    /**
+     * Test membership of inserted keys
+     * - Ensures that every key that was put is reported as possibly present, i.e. there are no false negatives
+     */
+    @Test
+    void testMightContain_NoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("product " + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("product " + i));
+        }
+        assertEquals(10_000, filter.insertions());
+    }
+
+    /**
+     * Test false positive rate at capacity
+     * - Ensures that absent keys are rejected at roughly the configured rate once the expected number of keys was put
+     */
+    @Test
+    void testMightContain_FalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("product " + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent " + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "False positive rate too high: " + falsePositives / 100_000.0);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    /**
+     * Test empty filter
+     * - Ensures that an empty filter reports every key as absent
+     */
+    @Test
+    void testMightContain_Empty() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain("headphones"));
+        assertFalse(filter.mightContain(""));
+    }
+}
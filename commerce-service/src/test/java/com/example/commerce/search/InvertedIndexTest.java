@@ -0,0 +1,85 @@
+package com.example.commerce.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    private final UUID laptop = UUID.randomUUID();
+    private final UUID sleeve = UUID.randomUUID();
+    private final UUID mouse = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        index = new InvertedIndex();
+        index.put(laptop, "Gaming Laptop", "A fast laptop with a dedicated graphics card");
+        index.put(sleeve, "Neoprene Sleeve", "Protective sleeve that fits any 15 inch laptop");
+        index.put(mouse, "Wireless Mouse", "Ergonomic mouse with silent clicks");
+    }
+
+    /**
+     * Test BM25 ranking
+     * - Ensures that a match in the name outranks a match in the description only
+     */
+    @Test
+    void testSearch_RanksNameMatchesFirst() {
+        List<UUID> results = index.search(TextAnalyzer.tokenize("laptop"), 10);
+
+        assertEquals(List.of(laptop, sleeve), results);
+    }
+
+    /**
+     * Test query normalization
+     * - Ensures that queries are matched case- and accent-insensitively and stop words are ignored
+     */
+    @Test
+    void testSearch_NormalizesQuery() {
+        List<UUID> results = index.search(TextAnalyzer.tokenize("The WÎRELESS"), 10);
+
+        assertEquals(List.of(mouse), results);
+    }
+
+    /**
+     * Test index maintenance
+     * - Ensures that updated products are re-indexed and removed products are no longer returned
+     */
+    @Test
+    void testPutAndRemove() {
+        index.put(mouse, "Wireless Trackball", "Thumb operated trackball");
+        index.remove(sleeve);
+
+        assertEquals(List.of(laptop), index.search(TextAnalyzer.tokenize("laptop"), 10));
+        assertEquals(List.of(mouse), index.search(TextAnalyzer.tokenize("trackball"), 10));
+        assertTrue(index.search(TextAnalyzer.tokenize("ergonomic"), 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * Test compaction
+     * - Ensures that renumbering documents after many removals keeps search results intact
+     */
+    @Test
+    void testCompact_KeepsLiveDocuments() {
+        for (int i = 0; i < 2000; i++) {
+            UUID temporary = UUID.randomUUID();
+            index.put(temporary, "Temporary laptop stand " + i, "Removed again");
+            index.remove(temporary);
+        }
+        index.compact();
+
+        assertEquals(List.of(laptop, sleeve), index.search(TextAnalyzer.tokenize("laptop"), 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testSearch_LimitsResults() {
+        assertEquals(List.of(laptop), index.search(TextAnalyzer.tokenize("laptop"), 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.commerce.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixTrieTest {
+
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void setup() {
+        trie = new PrefixTrie();
+    }
+
+    /**
+     * Test prefix completion ranking
+     * - Ensures that completions are returned by descending weight and only for matching prefixes
+     */
+    @Test
+    void testComplete_RanksByWeight() {
+        PrefixTrie.Completion headphones = insert("headphones", 5);
+        PrefixTrie.Completion headset = insert("headset", 20);
+        insert("hdmi cable", 50);
+
+        assertEquals(List.of(headset, headphones), trie.complete("head", 10));
+        assertEquals(List.of(headphones), trie.complete("headp", 10));
+        assertTrue(trie.complete("heads up", 10).isEmpty());
+    }
+
+    /**
+     * Test cached top completions
+     * - Ensures that subtrees larger than TOP_K still return the globally best completions after removals
+     */
+    @Test
+    void testComplete_LargeSubtreeAfterRemoval() {
+        for (int i = 0; i < 50; i++) {
+            insert("phone case " + i, i);
+        }
+        PrefixTrie.Completion best = insert("phone charger", 1000);
+
+        List<PrefixTrie.Completion> completions = trie.complete("phone", 3);
+        assertEquals(best, completions.get(0));
+        assertEquals(49, completions.get(1).weight());
+        assertEquals(48, completions.get(2).weight());
+
+        assertTrue(trie.remove("phone charger", best.productId()));
+        assertEquals(49, trie.complete("phone", 1).get(0).weight());
+        assertEquals(50, trie.size());
+    }
+
+    /**
+     * Test duplicate keys per product
+     * - Ensures that a product reachable through several keys is suggested only once
+     */
+    @Test
+    void testComplete_DeduplicatesProducts() {
+        PrefixTrie.Completion completion = new PrefixTrie.Completion(UUID.randomUUID(), "Pro Pro Mic", 1);
+        trie.insert("pro pro mic", completion);
+        trie.insert("pro mic", completion);
+
+        assertEquals(List.of(completion), trie.complete("pro", 10));
+    }
+
+    @Test
+    void testRemove_UnknownKey() {
+        PrefixTrie.Completion completion = insert("keyboard", 1);
+
+        assertFalse(trie.remove("keyboards", completion.productId()));
+        assertFalse(trie.remove("keyboard", UUID.randomUUID()));
+        assertTrue(trie.remove("keyboard", completion.productId()));
+        assertTrue(trie.complete("key", 10).isEmpty());
+    }
+
+    private PrefixTrie.Completion insert(String key, long weight) {
+        PrefixTrie.Completion completion = new PrefixTrie.Completion(UUID.randomUUID(), key, weight);
+        trie.insert(key, completion);
+        return completion;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.commerce.search;
+
+import com.example.commerce.dto.PriceBucketCountDTO;
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.event.ProductDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFacetIndexTest {
+
+    private final UUID electronics = UUID.randomUUID();
+    private final UUID books = UUID.randomUUID();
+
+    private ProductFacetIndex index;
+    private UUID cable;
+    private UUID headphones;
+    private UUID novel;
+    private UUID soldOutLaptop;
+
+    @BeforeEach
+    void setup() {
+        index = new ProductFacetIndex(null, List.of(new BigDecimal("25"), new BigDecimal("100")));
+        cable = put(electronics, "9.99", 30);
+        headphones = put(electronics, "79.00", 5);
+        novel = put(books, "25.00", 12);
+        soldOutLaptop = put(electronics, "999.00", 0);
+    }
+
+    /**
+     * Test combined predicates
+     * - Ensures that category, price range and stock filters are intersected
+     */
+    @Test
+    void testFilter_CombinesPredicates() {
+        FacetResult result = index.filter(new ProductFilter(Set.of(electronics), new BigDecimal("5"), new BigDecimal("80"), true), 0, 10);
+
+        assertEquals(2, result.totalCount());
+        assertEquals(Set.of(cable, headphones), Set.copyOf(result.productIds()));
+    }
+
+    /**
+     * Test disjunctive facet counts
+     * - Ensures that each facet is counted against all filters except its own
+     */
+    @Test
+    void testFilter_FacetCounts() {
+        FacetResult result = index.filter(new ProductFilter(Set.of(books), null, null, true), 0, 10);
+
+        assertEquals(List.of(novel), result.productIds());
+        assertEquals(2L, result.categoryCounts().get(electronics)); // sold-out laptop excluded by the stock filter
+        assertEquals(1L, result.categoryCounts().get(books));
+
+        List<PriceBucketCountDTO> buckets = result.priceBuckets();
+        assertEquals(3, buckets.size());
+        assertEquals(0, buckets.get(0).getCount());
+        assertEquals(1, buckets.get(1).getCount()); // 25.00 falls into [25, 100)
+        assertEquals(0, buckets.get(2).getCount());
+        assertNull(buckets.get(2).getMaxPrice());
+    }
+
+    /**
+     * Test index maintenance
+     * - Ensures that updated and deleted products move between facets
+     */
+    @Test
+    void testUpdateAndDelete() {
+        index.onProductChanged(new ProductChangedEvent(
+                new ProductResponseDTO(soldOutLaptop, "Laptop", "Restocked", new BigDecimal("899.00"), 3, "laptop.jpg", electronics)));
+        index.onProductDeleted(new ProductDeletedEvent(cable));
+
+        FacetResult result = index.filter(new ProductFilter(Set.of(), null, null, true), 0, 10);
+
+        assertEquals(Set.of(headphones, novel, soldOutLaptop), Set.copyOf(result.productIds()));
+        assertEquals(1, result.priceBuckets().get(2).getCount());
+    }
+
+    @Test
+    void testFilter_Paging() {
+        FacetResult firstPage = index.filter(new ProductFilter(Set.of(), null, null, false), 0, 3);
+        FacetResult secondPage = index.filter(new ProductFilter(Set.of(), null, null, false), 3, 3);
+
+        assertEquals(4, firstPage.totalCount());
+        assertEquals(3, firstPage.productIds().size());
+        assertEquals(1, secondPage.productIds().size());
+        assertFalse(firstPage.productIds().contains(secondPage.productIds().get(0)));
+    }
+
+    /**
+     * Test price bounds beyond the range of cents
+     * - Ensures that huge bounds are clamped instead of failing the request
+     */
+    @Test
+    void testFilter_HugePriceBoundsClamped() {
+        assertEquals(0, index.filter(new ProductFilter(null, new BigDecimal("1e30"), null, false), 0, 10).totalCount());
+        assertEquals(4, index.filter(new ProductFilter(null, new BigDecimal("-1e30"), new BigDecimal("1e30"), false), 0, 10).totalCount());
+    }
+
+    private UUID put(UUID categoryId, String price, int stock) {
+        UUID productId = UUID.randomUUID();
+        index.onProductChanged(new ProductChangedEvent(
+                new ProductResponseDTO(productId, "Product", "Description", new BigDecimal(price), stock, "image.jpg", categoryId)));
+        return productId;
+    }
+}
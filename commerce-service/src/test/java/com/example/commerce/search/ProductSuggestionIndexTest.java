@@ -0,0 +1,64 @@
+package com.example.commerce.search;
+
+import com.example.commerce.dto.ProductResponseDTO;
+import com.example.commerce.dto.ProductSuggestionDTO;
+import com.example.commerce.event.ProductChangedEvent;
+import com.example.commerce.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductSuggestionIndexTest {
+
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+
+    private ProductSuggestionIndex index;
+    private UUID headphones;
+    private UUID headset;
+
+    @BeforeEach
+    void setup() {
+        index = new ProductSuggestionIndex(null, orderItemRepository);
+        headphones = put("Headphones");
+        headset = put("Headset");
+    }
+
+    /**
+     * Test popularity refresh
+     * - Ensures that units sold after the index was built change the ranking once the weights are refreshed
+     */
+    @Test
+    void testRefreshPopularity_ReranksSoldProducts() {
+        assertEquals(List.of(headphones, headset), suggestedIds("head"));
+
+        List<OrderItemRepository.ProductSales> unitsSold = List.of(sales(headset, 3L));
+        when(orderItemRepository.sumQuantityByProduct()).thenReturn(unitsSold);
+        index.refreshPopularity();
+
+        assertEquals(List.of(headset, headphones), suggestedIds("head"));
+    }
+
+    private List<UUID> suggestedIds(String prefix) {
+        return index.suggest(prefix, 10).stream().map(ProductSuggestionDTO::getProductId).toList();
+    }
+
+    private UUID put(String name) {
+        UUID productId = UUID.randomUUID();
+        index.onProductChanged(new ProductChangedEvent(
+                new ProductResponseDTO(productId, name, "Description", new BigDecimal("10.00"), 5, "image.jpg", UUID.randomUUID())));
+        return productId;
+    }
+
+    private static OrderItemRepository.ProductSales sales(UUID productId, long unitsSold) {
+        OrderItemRepository.ProductSales sales = mock(OrderItemRepository.ProductSales.class);
+        when(sales.getProductId()).thenReturn(productId);
+        when(sales.getUnitsSold()).thenReturn(unitsSold);
+        return sales;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.CheckoutItemDTO;
+import com.example.commerce.dto.CheckoutRequestDTO;
+import com.example.commerce.dto.CheckoutResponseDTO;
+import com.example.commerce.model.Order;
+import com.example.commerce.model.OrderItem;
+import com.example.commerce.model.Product;
+import com.example.commerce.model.User;
+import com.example.commerce.repository.OrderItemRepository;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.repository.UserRepository;
+import com.example.commerce.reservation.ReservationTimer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CheckoutServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ReservationTimer reservationTimer;
+
+    @InjectMocks
+    private CheckoutService checkoutService;
+
+    private User user;
+    private Product laptop;
+    private Product mouse;
+    private UUID orderId;
+
+    @BeforeEach
+    void setup() {
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        laptop = product("Laptop", "999.00");
+        mouse = product("Mouse", "19.50");
+        orderId = UUID.randomUUID();
+    }
+
+    /**
+     * Test checkout of several lines
+     * - Ensures that the products are loaded in one query and repeated products are merged into one line
+     * - Ensures that the total is computed from the product prices and every line is reserved against the new order
+     */
+    @Test
+    void testCheckout_Success() {
+        LocalDateTime deadline = LocalDateTime.now().plusMinutes(30);
+        when(userRepository.findById(user.getUserId())).thenReturn(Optional.of(user));
+        when(productRepository.findAllByProductIdIn(anyCollection())).thenReturn(List.of(laptop, mouse));
+        when(reservationTimer.nextDeadline()).thenReturn(deadline);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(orderId);
+            return order;
+        });
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CheckoutResponseDTO response = checkoutService.checkout(request(
+                new CheckoutItemDTO(laptop.getProductId(), 1),
+                new CheckoutItemDTO(mouse.getProductId(), 1),
+                new CheckoutItemDTO(mouse.getProductId(), 2)));
+
+        assertEquals(new BigDecimal("1057.50"), response.getOrder().getTotalPrice());
+        assertEquals("PENDING", response.getOrder().getStatus());
+        assertEquals(2, response.getItems().size());
+        verify(productRepository, times(1)).findAllByProductIdIn(anyCollection());
+        verify(inventoryService, times(1)).reserve(laptop.getProductId(), 1, orderId);
+        verify(inventoryService, times(1)).reserve(mouse.getProductId(), 3, orderId);
+        verify(reservationTimer, times(1)).schedule(orderId, deadline);
+    }
+
+    /**
+     * Test checkout with an unknown product
+     * - Ensures that nothing is saved or reserved when one of the products does not exist
+     */
+    @Test
+    void testCheckout_ProductNotFound() {
+        when(userRepository.findById(user.getUserId())).thenReturn(Optional.of(user));
+        when(productRepository.findAllByProductIdIn(anyCollection())).thenReturn(List.of(laptop));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> checkoutService.checkout(request(
+                new CheckoutItemDTO(laptop.getProductId(), 1),
+                new CheckoutItemDTO(UUID.randomUUID(), 1))));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(inventoryService);
+    }
+
+    private CheckoutRequestDTO request(CheckoutItemDTO... items) {
+        return new CheckoutRequestDTO(user.getUserId(), "Hauptstraße 10", "Berlin", "Berlin", "Germany", "10115", List.of(items));
+    }
+
+    private Product product(String name, String price) {
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(10);
+        return product;
+    }
+}
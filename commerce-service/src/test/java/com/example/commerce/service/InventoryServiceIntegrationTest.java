@@ -0,0 +1,312 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.InventoryAuditDTO;
+import com.example.commerce.dto.InventoryLedgerEntryDTO;
+import com.example.commerce.model.Category;
+import com.example.commerce.model.Order;
+import com.example.commerce.model.OrderItem;
+import com.example.commerce.model.Product;
+import com.example.commerce.model.User;
+import com.example.commerce.model.enums.InventoryMovement;
+import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.model.enums.Role;
+import com.example.commerce.repository.CategoryRepository;
+import com.example.commerce.repository.OrderItemRepository;
+import com.example.commerce.repository.OrderRepository;
+import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.repository.ProductStockBucketRepository;
+import com.example.commerce.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the real database without a test transaction, so every reservation commits on its own like a checkout.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class InventoryServiceIntegrationTest {
+
+    private static final int INITIAL_STOCK = 50;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockBucketRepository productStockBucketRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private Category category;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        category = new Category();
+        category.setName("Flash Sale");
+        category = categoryRepository.save(category);
+
+        product = new Product();
+        product.setName("Limited Sneaker");
+        product.setDescription("Only a few pairs available");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("120.00"));
+        product.setStock(INITIAL_STOCK);
+        product.setImageUrl("ExampleURL_Sneaker");
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (user != null) {
+            orderRepository.findByUserUserId(user.getUserId()).forEach(order -> {
+                orderItemRepository.deleteAll(orderItemRepository.findByOrderOrderId(order.getOrderId()));
+                orderRepository.delete(order);
+            });
+            userRepository.delete(user);
+        }
+        productStockBucketRepository.deleteAll();
+        productRepository.deleteById(product.getProductId());
+        categoryRepository.deleteById(category.getCategoryId());
+    }
+
+    /**
+     * Test concurrent reservations of a single product
+     * - Many threads reserve one unit each, four times more often than there is stock
+     * - Ensures that exactly the available units are reserved, every other attempt is rejected and stock ends at zero
+     * - Ensures that every successful reservation saw a distinct remaining stock, i.e. no two decrements interleaved
+     */
+    @Test
+    void testReserve_ConcurrentCheckoutsNeverOversell() throws Exception {
+        Set<Integer> remainingStocks = ConcurrentHashMap.newKeySet();
+
+        int rejected = reserveConcurrently(INITIAL_STOCK * 4, remainingStocks);
+
+        assertEquals(IntStream.range(0, INITIAL_STOCK).boxed().collect(Collectors.toSet()), remainingStocks);
+        assertEquals(INITIAL_STOCK * 3, rejected);
+        assertEquals(0, productRepository.findStockById(product.getProductId()).orElseThrow());
+    }
+
+    /**
+     * Test concurrent reservations of a product with sharded stock
+     * - Ensures that the buckets together never hand out more than the stock, even when single buckets run empty
+     */
+    @Test
+    void testReserve_ShardedConcurrentCheckoutsNeverOversell() throws Exception {
+        inventoryService.shardStock(product.getProductId(), 8);
+
+        int rejected = reserveConcurrently(INITIAL_STOCK * 4, ConcurrentHashMap.newKeySet());
+
+        assertEquals(INITIAL_STOCK * 3, rejected);
+        assertEquals(0, productRepository.findStockById(product.getProductId()).orElseThrow());
+        assertTrue(productStockBucketRepository.findAll().stream().allMatch(bucket -> bucket.getStock() == 0));
+    }
+
+    /**
+     * Test the reported stock of a sharded product
+     * - Ensures that the product response reports the exact total over all buckets
+     * - Ensures that a reservation larger than any single bucket is taken from several buckets
+     * - Ensures that unsharding moves the remaining stock back into the stock column
+     */
+    @Test
+    void testShardStock_ReportsExactTotal() {
+        assertEquals(INITIAL_STOCK, inventoryService.shardStock(product.getProductId(), 7));
+        assertEquals(7, productStockBucketRepository.findAll().size());
+        assertEquals(INITIAL_STOCK, productService.getProductById(product.getProductId()).getStock());
+
+        assertEquals(INITIAL_STOCK - 3, inventoryService.reserve(product.getProductId(), 3, null));
+        assertEquals(INITIAL_STOCK - 3, productService.getProductById(product.getProductId()).getStock());
+        assertEquals(INITIAL_STOCK - 43, inventoryService.reserve(product.getProductId(), 40, null));
+
+        assertEquals(INITIAL_STOCK - 43, inventoryService.shardStock(product.getProductId(), 0));
+        assertEquals(INITIAL_STOCK - 43, productRepository.findById(product.getProductId()).orElseThrow().getStock());
+        assertTrue(productStockBucketRepository.findAll().stream().allMatch(bucket -> bucket.getStock() == 0));
+    }
+
+    /**
+     * Test the ETag of a sharded product
+     * - Ensures that a reservation changes the product version although only a bucket row was updated
+     */
+    @Test
+    void testShardedReserve_ChangesProductVersion() {
+        inventoryService.shardStock(product.getProductId(), 4);
+        long versionBefore = productService.getProductVersion(product.getProductId()).version();
+
+        inventoryService.reserve(product.getProductId(), 1, null);
+
+        assertTrue(productService.getProductVersion(product.getProductId()).version() > versionBefore);
+    }
+
+    /**
+     * Test releasing reserved stock
+     * - Ensures that a release gives the reserved units back and reports the new stock
+     */
+    @Test
+    void testRelease_RestoresStock() {
+        assertEquals(INITIAL_STOCK - 5, inventoryService.reserve(product.getProductId(), 5, null));
+        assertEquals(INITIAL_STOCK, inventoryService.release(product.getProductId(), 5, null));
+        assertEquals(INITIAL_STOCK, productRepository.findStockById(product.getProductId()).orElseThrow());
+    }
+
+    /**
+     * Test reserving more than the available stock
+     * - Ensures that the reservation is rejected and the stock stays untouched
+     */
+    @Test
+    void testReserve_InsufficientStock() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> inventoryService.reserve(product.getProductId(), INITIAL_STOCK + 1, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals(INITIAL_STOCK, productRepository.findStockById(product.getProductId()).orElseThrow());
+    }
+
+    /**
+     * Test expiry of abandoned pending orders
+     * - One order is past its reservation deadline, another one is still within it
+     * - Ensures that only the expired order is cancelled and exactly its units go back into stock
+     */
+    @Test
+    void testExpireOrders_CancelsOnlyExpiredAndReleasesStock() {
+        LocalDateTime now = LocalDateTime.now();
+        Order expired = createPendingOrder(now.minusMinutes(1), 5);
+        Order active = createPendingOrder(now.plusMinutes(10), 3);
+        assertEquals(INITIAL_STOCK - 8, productRepository.findStockById(product.getProductId()).orElseThrow());
+
+        InventoryService.ExpiredReservations result = inventoryService.expireOrders(List.of(expired.getOrderId(), active.getOrderId()), now);
+
+        assertEquals(1, result.orders());
+        assertEquals(5, result.units());
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(expired.getOrderId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(active.getOrderId()).orElseThrow().getStatus());
+        assertEquals(INITIAL_STOCK - 3, productRepository.findStockById(product.getProductId()).orElseThrow());
+    }
+
+    /**
+     * Test deriving stock from the inventory ledger
+     * - Ensures that reservations and releases are recorded and add up to the stored stock
+     * - Ensures that the derivation continues from a snapshot with the entries recorded after it
+     * - Ensures that a stock change bypassing the ledger shows up in the audit and is undone by a rebuild
+     */
+    @Test
+    void testLedger_DerivesAndRebuildsStock() {
+        UUID productId = product.getProductId();
+        inventoryLedgerService.record(productId, InventoryMovement.ADJUSTMENT, INITIAL_STOCK, INITIAL_STOCK, null);
+        inventoryService.reserve(productId, 5, null);
+        inventoryService.release(productId, 2, null);
+        assertEquals(INITIAL_STOCK - 3, inventoryService.getAudit(productId).getLedgerStock());
+
+        assertTrue(inventoryLedgerService.takeSnapshotsUpTo(LocalDateTime.now()) >= 1);
+        inventoryService.reserve(productId, 1, null);
+        InventoryAuditDTO audit = inventoryService.getAudit(productId);
+        assertNotNull(audit.getSnapshotCoveredUntil());
+        assertEquals(INITIAL_STOCK - 4, audit.getStock());
+        assertEquals(INITIAL_STOCK - 4, audit.getLedgerStock());
+        assertEquals(List.of("RESERVATION", "RELEASE", "RESERVATION", "ADJUSTMENT"),
+                inventoryLedgerService.getEntries(productId, 10).stream().map(InventoryLedgerEntryDTO::getMovement).toList());
+
+        Product bypassed = productRepository.findById(productId).orElseThrow();
+        bypassed.setStock(bypassed.getStock() + 10); // Saved without going through the services, so not in the ledger
+        productRepository.save(bypassed);
+        assertEquals(INITIAL_STOCK + 6, inventoryService.getAudit(productId).getStock());
+        assertEquals(INITIAL_STOCK - 4, inventoryService.rebuildStock(productId).getStock());
+        assertEquals(INITIAL_STOCK - 4, productRepository.findStockById(productId).orElseThrow());
+    }
+
+    private Order createPendingOrder(LocalDateTime reservationExpiresAt, int quantity) {
+        if (user == null) {
+            user = new User();
+            user.setName("Onyx");
+            user.setEmail("onyx.inventory@corp.com");
+            user.setPassword("password12345");
+            user.setRole(Role.CUSTOMER);
+            user = userRepository.save(user);
+        }
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalPrice(new BigDecimal("120.00").multiply(BigDecimal.valueOf(quantity)));
+        order.setReservationExpiresAt(reservationExpiresAt);
+        order = orderRepository.save(order);
+
+        inventoryService.reserve(product.getProductId(), quantity, order.getOrderId());
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal("120.00"));
+        orderItemRepository.save(item);
+        return order;
+    }
+
+    // Starts all reservations at once and returns how many were rejected for insufficient stock
+    private int reserveConcurrently(int attempts, Set<Integer> remainingStocks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    remainingStocks.add(inventoryService.reserve(product.getProductId(), 1, null));
+                } catch (ResponseStatusException e) {
+                    assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return rejected.get();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.commerce.service;
+
+import com.example.commerce.dto.CursorPageDTO;
+import com.example.commerce.dto.OrderDetailDTO;
+import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.model.*;
+import com.example.commerce.model.enums.OrderStatus;
+import com.example.commerce.model.enums.PaymentMethod;
+import com.example.commerce.model.enums.PaymentStatus;
+import com.example.commerce.model.enums.Role;
+import com.example.commerce.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class OrderArchiveServiceIntegrationTest {
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private User user;
+    private Order completedOrder;
+    private Order pendingOrder;
+
+    @BeforeEach
+    void setup() {
+        user = new User();
+        user.setName("Onyx");
+        user.setEmail("onyx@corp.com");
+        user.setPassword("password12345");
+        user.setRole(Role.CUSTOMER);
+        userRepository.save(user);
+
+        Category category = new Category();
+        category.setName("Electronics");
+        categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setName("Laptop");
+        product.setDescription("A very good laptop");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("125.00"));
+        product.setStock(10);
+        product.setImageUrl("ExampleURL_Laptop");
+        productRepository.save(product);
+
+        completedOrder = createOrder(OrderStatus.COMPLETED);
+        pendingOrder = createOrder(OrderStatus.PENDING);
+
+        OrderItem item = new OrderItem();
+        item.setOrder(completedOrder);
+        item.setProduct(product);
+        item.setQuantity(2);
+        item.setPrice(new BigDecimal("125.00"));
+        orderItemRepository.save(item);
+
+        Payment payment = new Payment();
+        payment.setOrder(completedOrder);
+        payment.setAmount(new BigDecimal("250.00"));
+        payment.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        payment.setStatus(PaymentStatus.COMPLETED);
+        paymentRepository.saveAndFlush(payment);
+    }
+
+    /**
+     * Test archiving final orders
+     * - Ensures that only the completed order is moved, together with its items and payment
+     * - Ensures that the pending order stays, whatever its age
+     */
+    @Test
+    void testArchiveOrders_MovesFinalOrders() {
+        int archived = orderArchiveService.archiveOrders(LocalDateTime.now().plusMinutes(1), 10);
+
+        assertEquals(1, archived);
+        assertTrue(orderRepository.findResponseById(completedOrder.getOrderId()).isEmpty());
+        assertTrue(orderRepository.findResponseById(pendingOrder.getOrderId()).isPresent());
+        assertTrue(orderItemRepository.findResponsesByOrderId(completedOrder.getOrderId()).isEmpty());
+        assertTrue(paymentRepository.findByOrderOrderId(completedOrder.getOrderId()).isEmpty());
+    }
+
+    /**
+     * Test reading archived orders through OrderService
+     * - Ensures that the order, its detail with items and payment, and the order history still show the archived order
+     */
+    @Test
+    void testArchivedOrder_ReadThroughOrderService() {
+        orderArchiveService.archiveOrders(LocalDateTime.now().plusMinutes(1), 10);
+
+        OrderResponseDTO order = orderService.getOrderById(completedOrder.getOrderId());
+        assertEquals(OrderStatus.COMPLETED.toString(), order.getStatus());
+        assertEquals(0, new BigDecimal("250.00").compareTo(order.getTotalPrice()));
+
+        OrderDetailDTO detail = orderService.getOrderDetail(completedOrder.getOrderId());
+        assertEquals(1, detail.getItems().size());
+        assertEquals("Laptop", detail.getItems().get(0).getProductName());
+        assertEquals(PaymentStatus.COMPLETED.toString(), detail.getPayment().getStatus());
+
+        CursorPageDTO<OrderResponseDTO> history = orderService.getOrdersForUser(user.getUserId(), Optional.empty(), null, 10);
+        assertEquals(2, history.getItems().size());
+        assertEquals(pendingOrder.getOrderId(), history.getItems().get(0).getOrderId());
+        assertEquals(completedOrder.getOrderId(), history.getItems().get(1).getOrderId());
+    }
+
+    private Order createOrder(OrderStatus status) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStreet("Hauptstraße 10");
+        order.setCity("Berlin");
+        order.setState("Berlin");
+        order.setCountry("Germany");
+        order.setPostalCode("10115");
+        order.setTotalPrice(new BigDecimal("250.00"));
+        order.setStatus(status);
+        return orderRepository.saveAndFlush(order);
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.commerce.service;
 
+import com.example.commerce.dto.CheckoutItemDTO;
+import com.example.commerce.dto.OrderItemBatchRequestDTO;
 import com.example.commerce.dto.OrderItemRequestDTO;
 import com.example.commerce.dto.OrderItemResponseDTO;
 import com.example.commerce.model.*;
 import com.example.commerce.model.enums.OrderStatus;
 import com.example.commerce.model.enums.Role;
 import com.example.commerce.repository.*;
+import com.example.commerce.reservation.ReservationTimer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
@@ -20,6 +24,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +42,12 @@ public class OrderItemServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ReservationTimer reservationTimer;
+
     @Mock
     private UserRepository userRepository;
 
@@ -94,26 +105,146 @@ public class OrderItemServiceTest {
 
     @Test
     void testGetOrderItemsByOrderId_Success() {
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(savedOrder));
-        when(orderItemRepository.findByOrder(savedOrder)).thenReturn(List.of(savedOrderItem));
+        OrderItemResponseDTO itemResponse = new OrderItemResponseDTO(
+                savedOrderItem.getOrderItemId(),
+                orderId,
+                productId,
+                savedOrderItem.getQuantity(),
+                savedOrderItem.getPrice(),
+                savedProduct.getName(),
+                savedOrderItem.getCreatedAt(),
+                savedOrderItem.getUpdatedAt()
+        );
+        when(orderRepository.existsById(orderId)).thenReturn(true);
+        when(orderItemRepository.findResponsesByOrderId(orderId)).thenReturn(List.of(itemResponse));
 
         List<OrderItemResponseDTO> responseDTOS = orderItemService.getOrderItemsByOrderId(orderId);
 
         assertEquals(1, responseDTOS.size());
         assertEquals(orderId, responseDTOS.get(0).getOrderItemId());
-        verify(orderItemRepository, times(1)).findByOrder(savedOrder);
+        verify(orderItemRepository, times(1)).findResponsesByOrderId(orderId);
     }
 
     @Test
     void testAddOrUpdateOrderItem_InsufficientStock() {
-        OrderItemRequestDTO requestDTO = new OrderItemRequestDTO(orderId, productId, 20, new BigDecimal("500.00"));
+        OrderItemRequestDTO requestDTO = new OrderItemRequestDTO(orderId, productId, 20);
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(savedOrder));
         when(productRepository.findById(productId)).thenReturn(Optional.of(savedProduct));
+        when(inventoryService.reserve(productId, 20, orderId))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock for the product"));
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
                 () -> orderItemService.addOrUpdateOrderItem(requestDTO));
 
         assertTrue(exception.getMessage().contains("Insufficient stock for the product"));
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+    }
+
+    @Test
+    void testAddOrUpdateOrderItem_PricesLineFromProduct() {
+        OrderItemRequestDTO requestDTO = new OrderItemRequestDTO(orderId, productId, 3);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(savedOrder));
+        when(productRepository.findById(productId)).thenReturn(Optional.of(savedProduct));
+        when(inventoryService.reserve(productId, 3, orderId)).thenReturn(7);
+        when(orderItemRepository.findByOrderAndProduct(savedOrder, savedProduct)).thenReturn(Optional.empty());
+        when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderItemResponseDTO responseDTO = orderItemService.addOrUpdateOrderItem(requestDTO);
+
+        assertEquals(new BigDecimal("50.00"), responseDTO.getPrice());
+        assertEquals(new BigDecimal("150.00"), responseDTO.getLineTotal());
+        assertEquals(new BigDecimal("650.00"), savedOrder.getTotalPrice());
+    }
+
+    @Test
+    void testAddOrUpdateOrderItems_MergesLinesAndUpdatesExistingItem() {
+        UUID newProductId = UUID.randomUUID();
+        Product newProduct = new Product();
+        newProduct.setProductId(newProductId);
+        newProduct.setName("Mouse");
+        newProduct.setPrice(new BigDecimal("25.00"));
+        orderId = UUID.randomUUID();
+        savedOrder.setOrderId(orderId);
+        productId = UUID.randomUUID();
+        savedProduct.setProductId(productId);
+        OrderItemBatchRequestDTO requestDTO = new OrderItemBatchRequestDTO(orderId, List.of(
+                new CheckoutItemDTO(productId, 1),
+                new CheckoutItemDTO(newProductId, 2),
+                new CheckoutItemDTO(productId, 1)));
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(savedOrder));
+        when(productRepository.findAllByProductIdIn(anyCollection())).thenReturn(List.of(savedProduct, newProduct));
+        when(orderItemRepository.findByOrderOrderIdAndProductProductIdIn(eq(orderId), anyCollection()))
+                .thenReturn(List.of(savedOrderItem));
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<OrderItemResponseDTO> responseDTOs = orderItemService.addOrUpdateOrderItems(requestDTO);
+
+        assertEquals(2, responseDTOs.size());
+        assertEquals(4, savedOrderItem.getQuantity());
+        // Two more units at the existing line price of 100.00, two new ones at the product price of 25.00
+        assertEquals(new BigDecimal("750.00"), savedOrder.getTotalPrice());
+        verify(inventoryService, times(1)).reserve(productId, 2, orderId);
+        verify(inventoryService, times(1)).reserve(newProductId, 2, orderId);
+        verify(orderItemRepository, times(1)).saveAll(anyList());
+        verify(orderItemRepository, never()).findByOrderAndProduct(any(), any());
+    }
+
+    @Test
+    void testAddOrUpdateOrderItems_UnknownProduct() {
+        OrderItemBatchRequestDTO requestDTO = new OrderItemBatchRequestDTO(orderId, List.of(new CheckoutItemDTO(UUID.randomUUID(), 1)));
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(savedOrder));
+        when(productRepository.findAllByProductIdIn(anyCollection())).thenReturn(List.of());
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderItemService.addOrUpdateOrderItems(requestDTO));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(inventoryService, never()).reserve(any(), anyInt(), any());
+        verify(orderItemRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testAddOrUpdateOrderItem_CompletedOrderRejected() {
+        savedOrder.setStatus(OrderStatus.COMPLETED);
+        OrderItemRequestDTO requestDTO = new OrderItemRequestDTO(orderId, productId, 1);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(savedOrder));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderItemService.addOrUpdateOrderItem(requestDTO));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(inventoryService, never()).reserve(any(), anyInt(), any());
+    }
+
+    @Test
+    void testDeleteOrderItem_CompletedOrderKeepsSoldStock() {
+        savedOrder.setStatus(OrderStatus.COMPLETED);
+        UUID orderItemId = UUID.randomUUID();
+        savedOrderItem.setOrderItemId(orderItemId);
+        when(orderItemRepository.findById(orderItemId)).thenReturn(Optional.of(savedOrderItem));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderItemService.deleteOrderItem(orderItemId));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(orderItemRepository, never()).delete(any(OrderItem.class));
+        verify(inventoryService, never()).release(any(), anyInt(), any());
+    }
+
+    @Test
+    void testDeleteOrderItem_ReleasesStock() {
+        UUID orderItemId = UUID.randomUUID();
+        savedOrderItem.setOrderItemId(orderItemId);
+        when(orderItemRepository.findById(orderItemId)).thenReturn(Optional.of(savedOrderItem));
+
+        orderItemService.deleteOrderItem(orderItemId);
+
+        verify(orderItemRepository, times(1)).delete(savedOrderItem);
+        verify(inventoryService, times(1)).release(productId, 2, orderId);
+        assertEquals(new BigDecimal("300.00"), savedOrder.getTotalPrice());
     }
 }
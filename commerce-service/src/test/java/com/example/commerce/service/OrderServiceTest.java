@@ -1,23 +1,31 @@
 package com.example.commerce.service;
 
+import com.example.commerce.dto.CursorPageDTO;
 import com.example.commerce.dto.OrderRequestDTO;
 import com.example.commerce.dto.OrderResponseDTO;
+import com.example.commerce.dto.OrderStatusResultDTO;
+import com.example.commerce.dto.OrderStatusResultDTO.Outcome;
+import com.example.commerce.event.OrderStatusChangedEvent;
 import com.example.commerce.model.Order;
 import com.example.commerce.model.User;
 import com.example.commerce.model.enums.OrderStatus;
 import com.example.commerce.model.enums.Role;
 import com.example.commerce.repository.OrderRepository;
 import com.example.commerce.repository.UserRepository;
+import com.example.commerce.reservation.ReservationTimer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -35,6 +43,21 @@ public class OrderServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ReservationTimer reservationTimer;
+
+    @Mock
+    private WarehouseAllocationService warehouseAllocationService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -57,27 +80,105 @@ public class OrderServiceTest {
     @Test
     void testGetOrderForUser_Success() {
         Order order = createTestOrder(OrderStatus.PENDING);
+        OrderResponseDTO orderResponse = new OrderResponseDTO(
+                order.getOrderId(),
+                userId,
+                order.getStreet(),
+                order.getCity(),
+                order.getState(),
+                order.getCountry(),
+                order.getPostalCode(),
+                order.getTotalPrice(),
+                order.getStatus().toString(),
+                order.getCreatedAt(),
+                order.getUpdatedAt()
+        );
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(orderRepository.findByUserUserId(userId)).thenReturn(List.of(order));
+        when(orderRepository.findFirstPageByUserId(userId, Limit.of(OrderService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of(orderResponse));
 
-        List<OrderResponseDTO> orders = orderService.getOrdersForUser(userId, Optional.empty());
+        CursorPageDTO<OrderResponseDTO> orders = orderService.getOrdersForUser(userId, Optional.empty(), null, OrderService.DEFAULT_PAGE_SIZE);
 
         assertNotNull(orders);
-        assertEquals(1, orders.size());
-        assertEquals(OrderStatus.PENDING.toString(), orders.get(0).getStatus());
+        assertEquals(1, orders.getItems().size());
+        assertEquals(OrderStatus.PENDING.toString(), orders.getItems().get(0).getStatus());
+        assertNull(orders.getNextCursor());
+        verify(userRepository, never()).existsById(userId);
     }
 
     @Test
     void testGetOrdersForUser_UserNotFound() {
+        when(orderRepository.findFirstPageByUserId(userId, Limit.of(OrderService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of());
         when(userRepository.existsById(userId)).thenReturn(false);
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                () -> orderService.getOrdersForUser(userId, Optional.empty()));
+                () -> orderService.getOrdersForUser(userId, Optional.empty(), null, OrderService.DEFAULT_PAGE_SIZE));
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
     }
 
+    @Test
+    void testGetOrdersForUser_Paged() {
+        LocalDateTime now = LocalDateTime.now();
+        OrderResponseDTO newest = orderResponse(UUID.randomUUID(), now);
+        OrderResponseDTO older = orderResponse(UUID.randomUUID(), now.minusMinutes(1));
+        OrderResponseDTO oldest = orderResponse(UUID.randomUUID(), now.minusMinutes(2));
+        when(orderRepository.findFirstPageByUserIdAndStatus(userId, OrderStatus.COMPLETED, Limit.of(3)))
+                .thenReturn(List.of(newest, older, oldest));
+        when(orderRepository.findPageBeforeByUserIdAndStatus(userId, OrderStatus.COMPLETED, older.getCreatedAt(), older.getOrderId(), Limit.of(3)))
+                .thenReturn(List.of(oldest));
+        when(orderArchiveService.horizon()).thenReturn(now.minusYears(1));
+
+        CursorPageDTO<OrderResponseDTO> firstPage = orderService.getOrdersForUser(userId, Optional.of(OrderStatus.COMPLETED), null, 2);
+        CursorPageDTO<OrderResponseDTO> secondPage = orderService.getOrdersForUser(userId, Optional.of(OrderStatus.COMPLETED), firstPage.getNextCursor(), 2);
+
+        assertEquals(List.of(newest, older), firstPage.getItems());
+        assertEquals(List.of(oldest), secondPage.getItems());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void testGetOrdersForUser_FullLivePageSkipsArchive() {
+        LocalDateTime now = LocalDateTime.now();
+        OrderResponseDTO newest = orderResponse(UUID.randomUUID(), now);
+        OrderResponseDTO older = orderResponse(UUID.randomUUID(), now.minusMinutes(1));
+        OrderResponseDTO oldest = orderResponse(UUID.randomUUID(), now.minusMinutes(2));
+        when(orderRepository.findFirstPageByUserId(userId, Limit.of(3))).thenReturn(List.of(newest, older, oldest));
+        when(orderArchiveService.horizon()).thenReturn(now.minusYears(1));
+
+        orderService.getOrdersForUser(userId, Optional.empty(), null, 2);
+
+        verify(orderArchiveService, never()).findPage(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetOrdersForUser_MergesArchivedOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        OrderResponseDTO live = orderResponse(UUID.randomUUID(), now);
+        OrderResponseDTO archived = orderResponse(UUID.randomUUID(), now.minusYears(1));
+        OrderResponseDTO oldest = orderResponse(UUID.randomUUID(), now.minusYears(2));
+        when(orderRepository.findFirstPageByUserId(userId, Limit.of(3))).thenReturn(List.of(live));
+        when(orderArchiveService.findPage(userId, Optional.empty(), null, Limit.of(3))).thenReturn(List.of(archived, oldest));
+
+        CursorPageDTO<OrderResponseDTO> page = orderService.getOrdersForUser(userId, Optional.empty(), null, 2);
+
+        assertEquals(List.of(live, archived), page.getItems());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetOrdersForUser_MergedTiesFollowDatabaseOrder() {
+        LocalDateTime createdAt = LocalDateTime.now().minusYears(1);
+        OrderResponseDTO live = orderResponse(new UUID(0x1000000000000000L, 0), createdAt);
+        OrderResponseDTO archived = orderResponse(new UUID(0x8000000000000000L, 0), createdAt);
+        when(orderRepository.findFirstPageByUserId(userId, Limit.of(3))).thenReturn(List.of(live));
+        when(orderArchiveService.findPage(userId, Optional.empty(), null, Limit.of(3))).thenReturn(List.of(archived));
+
+        CursorPageDTO<OrderResponseDTO> page = orderService.getOrdersForUser(userId, Optional.empty(), null, 2);
+
+        // 0x80... is the larger uuid as unsigned bytes, although UUID.compareTo sees it as negative
+        assertEquals(List.of(archived, live), page.getItems());
+    }
+
     @Test
     void testCreateOrder_Success() {
         OrderRequestDTO requestDTO = new OrderRequestDTO(
@@ -101,7 +202,7 @@ public class OrderServiceTest {
     @Test
     void testUpdateOrderStatus_Success() {
         Order order = createTestOrder(OrderStatus.PENDING);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         OrderResponseDTO responseDTO = orderService.updateOrderStatus(orderId, OrderStatus.COMPLETED);
@@ -110,16 +211,128 @@ public class OrderServiceTest {
         assertEquals(OrderStatus.COMPLETED.toString(), responseDTO.getStatus());
     }
 
+    @Test
+    void testUpdateOrderStatus_CancelledIsFinal() {
+        Order order = createTestOrder(OrderStatus.CANCELLED);
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderService.updateOrderStatus(orderId, OrderStatus.COMPLETED));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(inventoryService, never()).recordSale(orderId);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testTransitionOrders_ReportsOutcomes() {
+        UUID pendingId = UUID.randomUUID();
+        UUID completedId = UUID.randomUUID();
+        UUID cancelledId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        List<UUID> chunk = List.of(pendingId, completedId, cancelledId, missingId);
+        when(orderRepository.lockStatusesByIdIn(chunk)).thenReturn(List.of(
+                statusRow(pendingId, OrderStatus.PENDING), statusRow(completedId, OrderStatus.COMPLETED), statusRow(cancelledId, OrderStatus.CANCELLED)));
+
+        List<OrderStatusResultDTO> results = orderService.transitionOrders(chunk, OrderStatus.CANCELLED);
+
+        assertEquals(List.of(Outcome.UPDATED, Outcome.UPDATED, Outcome.UNCHANGED, Outcome.NOT_FOUND),
+                results.stream().map(OrderStatusResultDTO::getOutcome).toList());
+        verify(orderRepository, times(1)).updateStatus(List.of(pendingId, completedId), OrderStatus.CANCELLED);
+        verify(inventoryService, times(1)).releaseOrderItems(List.of(pendingId, completedId));
+        verify(warehouseAllocationService, times(1)).releaseAllocation(completedId);
+        verify(warehouseAllocationService, never()).releaseAllocation(pendingId);
+        verify(eventPublisher, times(1)).publishEvent(new OrderStatusChangedEvent(OrderStatus.CANCELLED, List.of(pendingId, completedId)));
+    }
+
+    @Test
+    void testTransitionOrders_IllegalTransitionLeftAlone() {
+        UUID cancelledId = UUID.randomUUID();
+        when(orderRepository.lockStatusesByIdIn(List.of(cancelledId))).thenReturn(List.of(statusRow(cancelledId, OrderStatus.CANCELLED)));
+
+        List<OrderStatusResultDTO> results = orderService.transitionOrders(List.of(cancelledId), OrderStatus.COMPLETED);
+
+        assertEquals(Outcome.ILLEGAL_TRANSITION, results.get(0).getOutcome());
+        assertEquals(OrderStatus.CANCELLED.toString(), results.get(0).getPreviousStatus());
+        verify(orderRepository, never()).updateStatus(any(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     @Test
     void testDeleteOrder_Success() {
         Order order = createTestOrder(OrderStatus.PENDING);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
 
         orderService.deleteOrder(orderId);
 
         verify(orderRepository, times(1)).delete(order);
     }
 
+    @Test
+    void testUpdateOrderStatus_CancelReleasesStock() {
+        Order order = createTestOrder(OrderStatus.PENDING);
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderResponseDTO responseDTO = orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED);
+
+        assertEquals(OrderStatus.CANCELLED.toString(), responseDTO.getStatus());
+        verify(inventoryService, times(1)).releaseOrderItems(orderId);
+        verify(warehouseAllocationService, times(1)).releaseAllocation(orderId);
+    }
+
+    @Test
+    void testCreateOrder_PendingSchedulesReservationExpiry() {
+        LocalDateTime deadline = LocalDateTime.now().plusMinutes(30);
+        OrderRequestDTO requestDTO = new OrderRequestDTO(
+          userId, "Hauptstraße 10", "Berlin", "Berlin", "Germany", "10115", new BigDecimal("300.00"), "PENDING"
+        );
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        when(reservationTimer.nextDeadline()).thenReturn(deadline);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(orderId);
+            return order;
+        });
+
+        orderService.createOrder(requestDTO);
+
+        verify(reservationTimer, times(1)).schedule(orderId, deadline);
+    }
+
+    @Test
+    void testUpdateOrderStatus_CompletedCancelsReservationExpiry() {
+        Order order = createTestOrder(OrderStatus.PENDING);
+        order.setReservationExpiresAt(LocalDateTime.now().plusMinutes(30));
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.updateOrderStatus(orderId, OrderStatus.COMPLETED);
+
+        assertNull(order.getReservationExpiresAt());
+        verify(reservationTimer, times(1)).cancelAfterCommit(List.of(orderId));
+    }
+
+    private OrderRepository.OrderStatusRow statusRow(UUID id, OrderStatus status) {
+        return new OrderRepository.OrderStatusRow() {
+            @Override
+            public UUID getOrderId() {
+                return id;
+            }
+
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+        };
+    }
+
+    private OrderResponseDTO orderResponse(UUID id, LocalDateTime createdAt) {
+        return new OrderResponseDTO(id, userId, "Hauptstraße 10", "Berlin", "Berlin", "Germany", "10115",
+                new BigDecimal("100.00"), OrderStatus.COMPLETED.toString(), createdAt, createdAt);
+    }
+
     private Order createTestOrder(OrderStatus status) {
         Order order = new Order();
         order.setOrderId(orderId);
@@ -19,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
@@ -121,4 +122,22 @@ public class PaymentServiceTest {
         assertTrue(exception.getMessage().contains("Cannot update a completed payment"));
         verify(paymentRepository, never()).save(any(Payment.class));
     }
+
+    @Test
+    void testUpdatePaymentStatus_Failure_CancelledPayment() {
+        Payment existingPayment = new Payment();
+        existingPayment.setPaymentId(UUID.randomUUID());
+        existingPayment.setOrder(savedOrder);
+        existingPayment.setAmount(new BigDecimal("100.00"));
+        existingPayment.setStatus(PaymentStatus.CANCELLED);
+        existingPayment.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+
+        when(paymentRepository.findById(existingPayment.getPaymentId())).thenReturn(Optional.of(existingPayment));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> paymentService.updatePaymentStatus(existingPayment.getPaymentId(), PaymentStatus.PENDING));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
 }
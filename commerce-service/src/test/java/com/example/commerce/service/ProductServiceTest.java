@@ -5,17 +5,24 @@ import com.example.commerce.dto.ProductResponseDTO;
 import com.example.commerce.model.Category;
 import com.example.commerce.model.Product;
 import com.example.commerce.repository.CategoryRepository;
+import com.example.commerce.repository.EntityVersion;
 import com.example.commerce.repository.ProductRepository;
+import com.example.commerce.search.ProductNameFilter;
+import com.example.commerce.search.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -32,11 +39,27 @@ public class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductNameFilter productNameFilter;
+
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5));
+
     @InjectMocks
     private ProductService productService;
 
     private Category category;
     private Product product;
+    private ProductResponseDTO productResponse;
 
     @BeforeEach
     void setup() {
@@ -52,6 +75,16 @@ public class ProductServiceTest {
         product.setPrice(new BigDecimal("100.00"));
         product.setStock(10);
         product.setImageUrl("ExampleURL_Headphones");
+
+        productResponse = new ProductResponseDTO(
+                product.getProductId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStock(),
+                product.getImageUrl(),
+                category.getCategoryId()
+        );
     }
 
     /**
@@ -70,6 +103,7 @@ public class ProductServiceTest {
         );
 
         when(categoryRepository.findById(category.getCategoryId())).thenReturn(Optional.of(category));
+        when(productNameFilter.mightContain("Headphones")).thenReturn(true);
         when(productRepository.existsByNameIgnoreCase("Headphones")).thenReturn(false);
         when(productRepository.save(any(Product.class))).thenReturn(product);
 
@@ -96,6 +130,7 @@ public class ProductServiceTest {
         );
 
         when(categoryRepository.findById(category.getCategoryId())).thenReturn(Optional.of(category));
+        when(productNameFilter.mightContain("Headphones")).thenReturn(true);
         when(productRepository.existsByNameIgnoreCase("Headphones")).thenReturn(true);
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
@@ -105,4 +140,139 @@ public class ProductServiceTest {
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
         assertEquals("Product with this name already exists", exception.getReason());
     }
+
+    /**
+     * Test product creation with a name the Bloom filter rules out
+     * - Ensures that no duplicate check query is issued for a definitely new name
+     */
+    @Test
+    void testCreateProduct_DefinitelyNewNameSkipsQuery() {
+        ProductRequestDTO requestDTO = new ProductRequestDTO(
+                "Headphones",
+                "A high-quality pair of headphones",
+                new BigDecimal("100.00"),
+                10,
+                "ExampleURL_Headphones",
+                category.getCategoryId()
+        );
+
+        when(categoryRepository.findById(category.getCategoryId())).thenReturn(Optional.of(category));
+        when(productNameFilter.mightContain("Headphones")).thenReturn(false);
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        productService.createProduct(requestDTO);
+
+        verify(productRepository, never()).existsByNameIgnoreCase(any());
+        verify(productRepository, times(1)).save(any(Product.class));
+    }
+
+    /**
+     * Test cached product retrieval
+     * - Ensures that repeated lookups of the same product are served from the cache after the first miss
+     */
+    @Test
+    void testGetProductById_ServedFromCache() {
+        when(productRepository.findResponseById(product.getProductId())).thenReturn(Optional.of(productResponse));
+
+        ProductResponseDTO first = productService.getProductById(product.getProductId());
+        ProductResponseDTO second = productService.getProductById(product.getProductId());
+
+        assertEquals(first, second);
+        verify(productRepository, times(1)).findResponseById(product.getProductId());
+        assertEquals(1, productCache.stats().getHitCount());
+        assertEquals(1, productCache.stats().getMissCount());
+    }
+
+    /**
+     * Test cache write-through on update
+     * - Ensures that a lookup after an update returns the new values without hitting the repository again
+     */
+    @Test
+    void testUpdateProduct_RefreshesCache() {
+        when(productRepository.findResponseById(product.getProductId())).thenReturn(Optional.of(productResponse));
+        when(productRepository.findById(product.getProductId())).thenReturn(Optional.of(product));
+        when(categoryRepository.findById(category.getCategoryId())).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService.getProductById(product.getProductId());
+
+        ProductRequestDTO requestDTO = new ProductRequestDTO(
+                "Headphones",
+                "Noise cancelling headphones",
+                new BigDecimal("120.00"),
+                7,
+                "ExampleURL_Headphones",
+                category.getCategoryId()
+        );
+        productService.updateProduct(product.getProductId(), requestDTO);
+
+        ProductResponseDTO cached = productService.getProductById(product.getProductId());
+
+        assertEquals(new BigDecimal("120.00"), cached.getPrice());
+        assertEquals(7, cached.getStock());
+        verify(productRepository, times(1)).findResponseById(product.getProductId());
+        verify(productRepository, times(1)).findById(product.getProductId());
+    }
+
+    /**
+     * Test cached product version
+     * - Ensures that the ETag version is cached next to the product and reloaded once the product changes
+     */
+    @Test
+    void testGetProductVersion_CachedUntilUpdate() {
+        LocalDateTime updatedAt = LocalDateTime.now();
+        when(productRepository.findVersionById(product.getProductId()))
+                .thenReturn(Optional.of(new EntityVersion(0L, updatedAt)))
+                .thenReturn(Optional.of(new EntityVersion(1L, updatedAt.plusSeconds(1))));
+        when(productRepository.findById(product.getProductId())).thenReturn(Optional.of(product));
+        when(categoryRepository.findById(category.getCategoryId())).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(0L, productService.getProductVersion(product.getProductId()).version());
+        assertEquals(0L, productService.getProductVersion(product.getProductId()).version());
+
+        ProductRequestDTO requestDTO = new ProductRequestDTO(
+                "Headphones",
+                "Noise cancelling headphones",
+                new BigDecimal("120.00"),
+                7,
+                "ExampleURL_Headphones",
+                category.getCategoryId()
+        );
+        productService.updateProduct(product.getProductId(), requestDTO);
+
+        assertEquals(1L, productService.getProductVersion(product.getProductId()).version());
+        verify(productRepository, times(2)).findVersionById(product.getProductId());
+    }
+
+    /**
+     * Test filtering with a page beyond the int range
+     * - Ensures that an offset that would overflow is rejected with 400 instead of reaching the facet index
+     */
+    @Test
+    void testFilterProducts_PageOutOfRange() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> productService.filterProducts(null, null, null, false, Integer.MAX_VALUE, ProductService.DEFAULT_PAGE_SIZE));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    /**
+     * Test cache eviction on delete
+     * - Ensures that a deleted product is no longer served from the cache
+     */
+    @Test
+    void testDeleteProduct_EvictsCache() {
+        when(productRepository.findResponseById(product.getProductId()))
+                .thenReturn(Optional.of(productResponse))
+                .thenReturn(Optional.empty());
+        when(productRepository.existsById(product.getProductId())).thenReturn(true);
+
+        productService.getProductById(product.getProductId());
+        productService.deleteProduct(product.getProductId());
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> productService.getProductById(product.getProductId()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.commerce.warehouse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AllocationPlannerTest {
+
+    private final WarehouseSite berlin = new WarehouseSite(UUID.randomUUID(), "BER", "Germany", "Berlin", 0);
+    private final WarehouseSite munich = new WarehouseSite(UUID.randomUUID(), "MUC", "Germany", "Bavaria", 1);
+    private final WarehouseSite vienna = new WarehouseSite(UUID.randomUUID(), "VIE", "Austria", "Vienna", 0);
+
+    private final UUID laptop = UUID.randomUUID();
+    private final UUID mouse = UUID.randomUUID();
+
+    /**
+     * Test ordering by proximity
+     * - Ensures that warehouses in the state of the address come before those in its country, then all others
+     */
+    @Test
+    void testByProximity_StateThenCountry() {
+        List<WarehouseSite> ordered = AllocationPlanner.byProximity(List.of(vienna, berlin, munich), "germany", "Bavaria");
+
+        assertEquals(List.of(munich, berlin, vienna), ordered);
+    }
+
+    /**
+     * Test orders one warehouse can ship
+     * - Ensures that the order is not split even though a closer warehouse holds part of it
+     */
+    @Test
+    void testPlan_SingleWarehouseBeatsCloserSplit() {
+        Map<UUID, Map<UUID, Integer>> stock = Map.of(
+                laptop, Map.of(munich.warehouseId(), 2, berlin.warehouseId(), 2),
+                mouse, Map.of(berlin.warehouseId(), 5));
+
+        List<AllocationLine> plan = AllocationPlanner.plan(Map.of(laptop, 1, mouse, 1), List.of(munich, berlin, vienna), stock).orElseThrow();
+
+        assertEquals(Set.of(berlin.warehouseId()), plan.stream().map(AllocationLine::warehouseId).collect(Collectors.toSet()));
+        assertEquals(2, plan.size());
+    }
+
+    /**
+     * Test orders no single warehouse can ship
+     * - Ensures that the units are split over the warehouses and add up to the order
+     * - Ensures that the closer of two equally stocked warehouses ships first
+     */
+    @Test
+    void testPlan_SplitsWhenNoWarehouseHoldsEverything() {
+        Map<UUID, Map<UUID, Integer>> stock = Map.of(laptop, Map.of(vienna.warehouseId(), 3, berlin.warehouseId(), 3));
+
+        List<AllocationLine> plan = AllocationPlanner.plan(Map.of(laptop, 5), List.of(berlin, vienna), stock).orElseThrow();
+
+        assertEquals(List.of(new AllocationLine(berlin.warehouseId(), laptop, 3), new AllocationLine(vienna.warehouseId(), laptop, 2)), plan);
+    }
+
+    /**
+     * Test insufficient stock
+     * - Ensures that no plan is made when the warehouses together hold fewer units than ordered
+     */
+    @Test
+    void testPlan_NotEnoughStock() {
+        Map<UUID, Map<UUID, Integer>> stock = Map.of(laptop, Map.of(berlin.warehouseId(), 1), mouse, Map.of());
+
+        Optional<List<AllocationLine>> plan = AllocationPlanner.plan(Map.of(laptop, 1, mouse, 1), List.of(berlin), stock);
+
+        assertTrue(plan.isEmpty());
+    }
+}